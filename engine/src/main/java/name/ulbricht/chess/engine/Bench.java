@@ -0,0 +1,72 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+
+import java.util.List;
+
+/**
+ * Searches a fixed set of positions to a fixed depth and reports the nodes, the nodes per second and the effective
+ * branching factor. Running the benchmark with a selective technique switched off shows the gain of the technique.
+ * <p>
+ * Usage: {@code Bench [<depth>] [-nullmove] [-lmr] [-futility] [-reversefutility] [-aspiration]}
+ */
+public final class Bench {
+
+    private static final int DEFAULT_DEPTH = 7;
+
+    static final List<String> positions = List.of(
+            FEN.INITIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        SearchOptions options = SearchOptions.all();
+        for (String arg : args) {
+            switch (arg) {
+                case "-nullmove":
+                    options = options.withNullMovePruning(false);
+                    break;
+                case "-lmr":
+                    options = options.withLateMoveReductions(false);
+                    break;
+                case "-futility":
+                    options = options.withFutilityPruning(false);
+                    break;
+                case "-reversefutility":
+                    options = options.withReverseFutilityPruning(false);
+                    break;
+                case "-aspiration":
+                    options = options.withAspirationWindows(false);
+                    break;
+                default:
+                    depth = Integer.parseInt(arg);
+            }
+        }
+        System.out.println("depth " + depth + " " + options);
+
+        long nodes = 0;
+        long nanos = 0;
+        double branchingFactors = 0;
+        for (String fen : positions) {
+            SearchInfo result = new Search(FEN.createBoard(fen), SearchLimits.depth(depth), options,
+                    new TranspositionTable(16), info -> {
+            }).search();
+            System.out.println(result);
+            nodes += result.nodes;
+            nanos += result.nanos;
+            branchingFactors += result.getEffectiveBranchingFactor();
+        }
+        System.out.printf("nodes %,d time %.3f s nps %,d ebf %.2f%n", nodes, nanos / 1e9,
+                nanos > 0 ? nodes * 1_000_000_000L / nanos : 0, branchingFactors / positions.size());
+    }
+
+    private Bench() {
+        // hidden
+    }
+}
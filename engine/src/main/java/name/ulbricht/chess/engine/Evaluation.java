@@ -0,0 +1,94 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.Piece;
+import name.ulbricht.chess.game.PieceType;
+import name.ulbricht.chess.game.Player;
+
+/**
+ * Static evaluation of a position. The score is given in centipawns from the view of the active player.
+ * <p>
+ * The board maintains the middlegame and the endgame score of its pieces and the phase of the game incrementally, the
+ * evaluation adds the pawn structure from the pawn table, the pawn shields of the kings and the passed pawns that can
+ * advance, and blends the middlegame and the endgame score by the phase.
+ */
+final class Evaluation {
+
+    private static final int SHIELD_MIDDLEGAME = 12;
+    private static final int[] FREE_PASSED_ENDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+
+    private static final int[] values = new int[PieceType.values().length];
+
+    static {
+        values[PieceType.PAWN.ordinal()] = 100;
+        values[PieceType.KNIGHT.ordinal()] = 320;
+        values[PieceType.BISHOP.ordinal()] = 330;
+        values[PieceType.ROOK.ordinal()] = 500;
+        values[PieceType.QUEEN.ordinal()] = 900;
+    }
+
+    // the squares on the file of the king and the adjacent files on the two ranks in front of it, by player and square
+    private static final long[][] shieldMasks = new long[2][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int file = square % 8;
+            int rank = square / 8;
+            for (int f = Math.max(file - 1, 0); f <= Math.min(file + 1, 7); f++) {
+                for (int r = 1; r <= 2; r++) {
+                    if (rank + r < 8) shieldMasks[Player.WHITE.ordinal()][square] |= 1L << (8 * (rank + r) + f);
+                    if (rank - r >= 0) shieldMasks[Player.BLACK.ordinal()][square] |= 1L << (8 * (rank - r) + f);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the material value of a piece type, as used to order and prune captures. The king has no material
+     * value.
+     *
+     * @param type the piece type
+     * @return the value in centipawns
+     */
+    static int value(PieceType type) {
+        return values[type.ordinal()];
+    }
+
+    /**
+     * Evaluates the position of the board.
+     *
+     * @param board the board
+     * @param pawns the pawn table of the search
+     * @return the score in centipawns from the view of the active player
+     */
+    static int evaluate(Board board, PawnTable pawns) {
+        int entry = pawns.probe(board);
+        int middlegame = board.getMiddlegameScore() + pawns.middlegameScore(entry);
+        int endgame = board.getEndgameScore() + pawns.endgameScore(entry);
+
+        long occupied = board.occupancy();
+        long passedPawns = pawns.passedPawns(entry);
+        for (Player player : Player.values()) {
+            int sign = player == Player.WHITE ? 1 : -1;
+            long own = board.pieces(Piece.valueOf(PieceType.PAWN, player));
+            int king = Long.numberOfTrailingZeros(board.pieces(Piece.valueOf(PieceType.KING, player)));
+            if (king < 64)
+                middlegame += sign * SHIELD_MIDDLEGAME * Long.bitCount(own & shieldMasks[player.ordinal()][king]);
+
+            for (long passed = passedPawns & own; passed != 0; passed &= passed - 1) {
+                int square = Long.numberOfTrailingZeros(passed);
+                int stop = player == Player.WHITE ? square + 8 : square - 8;
+                if ((occupied & (1L << stop)) == 0)
+                    endgame += sign * FREE_PASSED_ENDGAME[player == Player.WHITE ? square / 8 : 7 - square / 8];
+            }
+        }
+
+        int phase = board.getPhase();
+        int score = (middlegame * phase + endgame * (Board.MAX_PHASE - phase)) / Board.MAX_PHASE;
+        return board.getActivePlayer() == Player.WHITE ? score : -score;
+    }
+
+    private Evaluation() {
+        // hidden
+    }
+}
@@ -0,0 +1,198 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.Move;
+import name.ulbricht.chess.game.MoveGenerator;
+import name.ulbricht.chess.game.MoveList;
+import name.ulbricht.chess.game.Piece;
+import name.ulbricht.chess.game.PieceType;
+
+/**
+ * Returns the legal moves of a position in the order they are most likely to cause a cutoff:
+ * <ol>
+ * <li>the best move of the transposition table</li>
+ * <li>the captures and promotions that do not lose material, the most valuable victim first and then the least
+ * valuable attacker (MVV-LVA)</li>
+ * <li>the killer moves, quiet moves that caused a cutoff in another position at the same ply</li>
+ * <li>the quiet moves, sorted by their history score</li>
+ * <li>the captures that lose material by static exchange evaluation</li>
+ * </ol>
+ * The moves of each stage are generated and sorted only when the stage is reached, so no work is done for the later
+ * stages after a cutoff. A picker is reused for all positions at the same ply.
+ */
+final class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIET_MOVES = 4;
+    private static final int QUIET_MOVES = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    private final MoveList captures = new MoveList();
+    private final int[] captureScores = new int[256];
+    private final MoveList badCaptures = new MoveList();
+    private final MoveList quietMoves = new MoveList();
+    private final int[] quietScores = new int[256];
+    private final MoveList buffer = new MoveList();
+    private final int[] exchangeGains = new int[StaticExchange.MAX_CAPTURES];
+
+    private Board board;
+    private int hashMove;
+    private int[] killers;
+    private int[][] history;
+    private int stage;
+    private int index;
+
+    /**
+     * Starts picking the moves of a position.
+     *
+     * @param board    the board
+     * @param hashMove the best move of the transposition table or {@link Move#NONE}, it may be illegal
+     * @param killers  the killer moves of the ply, they may be illegal
+     * @param history  the history scores by piece and target square
+     */
+    void init(Board board, int hashMove, int[] killers, int[][] history) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.killers = killers;
+        this.history = history;
+        this.stage = HASH_MOVE;
+        this.index = 0;
+    }
+
+    /**
+     * Returns the next move.
+     *
+     * @return the encoded move or {@link Move#NONE} if there are no more moves
+     */
+    int next() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE:
+                    this.stage = GENERATE_CAPTURES;
+                    if (this.hashMove != Move.NONE && MoveGenerator.isLegal(this.board, this.hashMove, this.buffer))
+                        return this.hashMove;
+                    break;
+
+                case GENERATE_CAPTURES:
+                    this.captures.clear();
+                    this.badCaptures.clear();
+                    MoveGenerator.legalCaptures(this.board, this.captures);
+                    for (int i = 0; i < this.captures.size(); i++) {
+                        this.captureScores[i] = mvvLva(this.captures.get(i));
+                    }
+                    this.index = 0;
+                    this.stage = GOOD_CAPTURES;
+                    break;
+
+                case GOOD_CAPTURES:
+                    while (this.index < this.captures.size()) {
+                        int move = select(this.captures, this.captureScores, this.index++);
+                        if (move == this.hashMove) continue;
+                        if (isLosing(move)) this.badCaptures.add(move);
+                        else return move;
+                    }
+                    this.index = 0;
+                    this.stage = KILLERS;
+                    break;
+
+                case KILLERS:
+                    while (this.index < this.killers.length) {
+                        int move = this.killers[this.index++];
+                        if (move != Move.NONE && move != this.hashMove
+                                && MoveGenerator.isLegal(this.board, move, this.buffer))
+                            return move;
+                    }
+                    this.stage = GENERATE_QUIET_MOVES;
+                    break;
+
+                case GENERATE_QUIET_MOVES:
+                    this.quietMoves.clear();
+                    MoveGenerator.legalQuietMoves(this.board, this.quietMoves);
+                    for (int i = 0; i < this.quietMoves.size(); i++) {
+                        int move = this.quietMoves.get(i);
+                        this.quietScores[i] = this.history[Move.piece(move).ordinal()][Move.target(move)];
+                    }
+                    this.index = 0;
+                    this.stage = QUIET_MOVES;
+                    break;
+
+                case QUIET_MOVES:
+                    while (this.index < this.quietMoves.size()) {
+                        int move = select(this.quietMoves, this.quietScores, this.index++);
+                        if (move != this.hashMove && !isKiller(move)) return move;
+                    }
+                    this.index = 0;
+                    this.stage = BAD_CAPTURES;
+                    break;
+
+                case BAD_CAPTURES:
+                    if (this.index < this.badCaptures.size()) return this.badCaptures.get(this.index++);
+                    this.stage = DONE;
+                    break;
+
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+
+    /**
+     * Checks if the encoded move is searched after the captures as a killer or a quiet move.
+     *
+     * @param move the encoded move
+     * @return {@code true} if the move is a quiet move
+     */
+    static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && Move.promotion(move) == null;
+    }
+
+    private boolean isKiller(int move) {
+        for (int killer : this.killers) {
+            if (killer == move) return true;
+        }
+        return false;
+    }
+
+    // a capture of a more valuable piece cannot lose material, only the other ones need the exchange evaluation
+    private boolean isLosing(int move) {
+        Piece captured = Move.capturedPiece(move);
+        if (captured != null && Evaluation.value(captured.type) >= Evaluation.value(Move.piece(move).type))
+            return false;
+        return StaticExchange.evaluate(this.board, move, this.exchangeGains) < 0;
+    }
+
+    private static int mvvLva(int move) {
+        Piece captured = Move.capturedPiece(move);
+        PieceType promotion = Move.promotion(move);
+        int score = captured != null ? 16 * Evaluation.value(captured.type) : 0;
+        if (promotion == PieceType.QUEEN) score += 16 * Evaluation.value(promotion);
+        return score - Evaluation.value(Move.piece(move).type) / 16;
+    }
+
+    /**
+     * Moves the move with the highest score from the given index on to the index. The moves are sorted while they are
+     * searched, so the rest of the moves is not sorted after a cutoff.
+     *
+     * @param moves  the moves
+     * @param scores the scores of the moves
+     * @param index  the index of the next move
+     * @return the move with the highest score
+     */
+    static int select(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(index);
+    }
+}
@@ -0,0 +1,150 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Searches the best move of a position with several threads. All threads search the same position and share the
+ * transposition table, so each thread profits from the positions the other threads already searched (Lazy SMP). The
+ * main search runs in the calling thread and determines the result, the helper threads only fill the table. They are
+ * stopped as soon as the main search is finished.
+ * <p>
+ * The reported nodes are the nodes of all threads. A node limit applies to the nodes of all threads as well.
+ */
+public final class ParallelSearch {
+
+    private final Search[] searches;
+    private SearchInfo result;
+
+    /**
+     * Creates a search for the position of the board.
+     *
+     * @param board    the board, it will not be changed
+     * @param limits   the limits of the search
+     * @param table    the transposition table shared by the threads
+     * @param threads  the number of threads, at least 1
+     * @param listener receives the result of each completed iteration of the main search
+     */
+    public ParallelSearch(Board board, SearchLimits limits, TranspositionTable table, int threads,
+                          Consumer<SearchInfo> listener) {
+        this(board, limits, SearchOptions.all(), table, threads, listener);
+    }
+
+    /**
+     * Creates a search for the position of the board with the given selective techniques.
+     *
+     * @param board    the board, it will not be changed
+     * @param limits   the limits of the search
+     * @param options  the selective techniques
+     * @param table    the transposition table shared by the threads
+     * @param threads  the number of threads, at least 1
+     * @param listener receives the result of each completed iteration of the main search
+     */
+    public ParallelSearch(Board board, SearchLimits limits, SearchOptions options, TranspositionTable table,
+                          int threads, Consumer<SearchInfo> listener) {
+        Objects.requireNonNull(board, "board cannot be null");
+        Objects.requireNonNull(limits, "limits cannot be null");
+        Objects.requireNonNull(options, "options cannot be null");
+        Objects.requireNonNull(table, "table cannot be null");
+        Objects.requireNonNull(listener, "listener cannot be null");
+        if (threads < 1) throw new IllegalArgumentException("Illegal threads: " + threads);
+
+        SearchLimits threadLimits = limits.nodes != Long.MAX_VALUE
+                ? limits.withNodes(Math.max(1, limits.nodes / threads))
+                : limits;
+        this.searches = new Search[threads];
+        this.searches[0] = new Search(board, threadLimits, options, table, info -> {
+            this.result = withAllNodes(info);
+            listener.accept(this.result);
+        }, 0);
+        for (int i = 1; i < threads; i++) {
+            this.searches[i] = new Search(board, threadLimits, options, table, info -> {
+            }, i);
+        }
+    }
+
+    /**
+     * Runs the search until a limit is reached or the search is stopped.
+     *
+     * @return the result of the last completed iteration of the main search
+     */
+    public SearchInfo search() {
+        Thread[] helpers = new Thread[this.searches.length - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search search = this.searches[i + 1];
+            helpers[i] = new Thread(search::search, "search-helper-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+
+        try {
+            this.searches[0].search();
+        } finally {
+            stop();
+            for (Thread helper : helpers) {
+                try {
+                    helper.join();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return this.result;
+    }
+
+    /**
+     * Stops the search of all threads. The search returns the result of the last completed iteration.
+     */
+    public void stop() {
+        for (Search search : this.searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Lets all threads ignore the time limits until {@link #ponderHit()} is called. This must be called before the
+     * search is run.
+     *
+     * @see Search#ponder()
+     */
+    public void ponder() {
+        for (Search search : this.searches) {
+            search.ponder();
+        }
+    }
+
+    /**
+     * Starts the time limits of all threads, because the opponent played the expected move.
+     *
+     * @see Search#ponderHit()
+     */
+    public void ponderHit() {
+        for (Search search : this.searches) {
+            search.ponderHit();
+        }
+    }
+
+    /**
+     * Returns the number of nodes searched so far by all threads.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (Search search : this.searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    public int getThreads() {
+        return this.searches.length;
+    }
+
+    private SearchInfo withAllNodes(SearchInfo info) {
+        return new SearchInfo(info.depth, info.score, Math.max(info.nodes, getNodes()), info.nanos,
+                info.getPrincipalVariation(), info.hashfull, info.getEffectiveBranchingFactor());
+    }
+}
@@ -0,0 +1,192 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.Piece;
+import name.ulbricht.chess.game.PieceType;
+import name.ulbricht.chess.game.Player;
+
+/**
+ * Evaluates the pawn structure and caches the result by the pawn key of the board. The pawns move rarely compared to
+ * the other pieces, so most positions of a search find their pawn structure in the table.
+ * <p>
+ * The table has a fixed size and stores the middlegame score, the endgame score and the passed pawns of each entry in
+ * primitive arrays. It belongs to a single search thread. A board without pawns has the key {@code 0}, the empty
+ * entries already hold the correct result for it.
+ */
+final class PawnTable {
+
+    private static final long FILE_A = 0x0101010101010101L;
+
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDDLEGAME = -5;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int BACKWARD_MIDDLEGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 30, 50, 80, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final long[] files = new long[8];
+    private static final long[] adjacentFiles = new long[8];
+
+    // the squares in front of a pawn on its file and the adjacent files, by player and square
+    private static final long[][] passedMasks = new long[2][64];
+
+    // the squares beside and behind a pawn on the adjacent files, by player and square
+    private static final long[][] supportMasks = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            files[file] = FILE_A << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            adjacentFiles[file] = (file > 0 ? files[file - 1] : 0) | (file < 7 ? files[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int file = square % 8;
+            int rank = square / 8;
+            long span = files[file] | adjacentFiles[file];
+            long above = rank < 7 ? -1L << (8 * (rank + 1)) : 0;
+            long below = rank > 0 ? -1L >>> (8 * (8 - rank)) : 0;
+            passedMasks[Player.WHITE.ordinal()][square] = span & above;
+            passedMasks[Player.BLACK.ordinal()][square] = span & below;
+            supportMasks[Player.WHITE.ordinal()][square] = adjacentFiles[file] & ~above;
+            supportMasks[Player.BLACK.ordinal()][square] = adjacentFiles[file] & ~below;
+        }
+    }
+
+    private final long[] keys;
+    private final int[] middlegameScores;
+    private final int[] endgameScores;
+    private final long[] passedPawns;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Creates a table with the given number of entries.
+     *
+     * @param entries the number of entries, a power of two
+     */
+    PawnTable(int entries) {
+        if (entries < 1 || Integer.bitCount(entries) != 1)
+            throw new IllegalArgumentException("Illegal entries: " + entries);
+        this.keys = new long[entries];
+        this.middlegameScores = new int[entries];
+        this.endgameScores = new int[entries];
+        this.passedPawns = new long[entries];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * Looks up the pawn structure of the board. If it is not stored, it is evaluated and stored.
+     *
+     * @param board the board
+     * @return the index of the entry
+     */
+    int probe(Board board) {
+        long key = board.getPawnKey();
+        int index = (int) (key >>> 32) & this.mask;
+        this.probes++;
+        if (this.keys[index] == key) {
+            this.hits++;
+        } else {
+            this.keys[index] = key;
+            evaluate(board, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the middlegame score of the pawn structure of an entry, from the view of White.
+     */
+    int middlegameScore(int index) {
+        return this.middlegameScores[index];
+    }
+
+    /**
+     * Returns the endgame score of the pawn structure of an entry, from the view of White.
+     */
+    int endgameScore(int index) {
+        return this.endgameScores[index];
+    }
+
+    /**
+     * Returns the passed pawns of both players of an entry.
+     */
+    long passedPawns(int index) {
+        return this.passedPawns[index];
+    }
+
+    /**
+     * Returns the ratio of the lookups that found their entry.
+     *
+     * @return the hit rate from 0 to 1
+     */
+    double getHitRate() {
+        return this.probes > 0 ? (double) this.hits / this.probes : 0;
+    }
+
+    /**
+     * Returns the squares in front of a pawn that must be free of opponent pawns for the pawn to be passed.
+     *
+     * @param player the player of the pawn
+     * @param square the square of the pawn
+     * @return the bitboard of the squares
+     */
+    static long passedMask(Player player, int square) {
+        return passedMasks[player.ordinal()][square];
+    }
+
+    private void evaluate(Board board, int index) {
+        int middlegame = 0;
+        int endgame = 0;
+        long passed = 0;
+        for (Player player : Player.values()) {
+            int sign = player == Player.WHITE ? 1 : -1;
+            long own = board.pieces(Piece.valueOf(PieceType.PAWN, player));
+            long theirs = board.pieces(Piece.valueOf(PieceType.PAWN, player.opponent()));
+
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                int file = square % 8;
+                int relativeRank = player == Player.WHITE ? square / 8 : 7 - square / 8;
+
+                if ((own & files[file] & passedMasks[player.ordinal()][square]) != 0) {
+                    middlegame += sign * DOUBLED_MIDDLEGAME;
+                    endgame += sign * DOUBLED_ENDGAME;
+                }
+
+                if ((own & adjacentFiles[file]) == 0) {
+                    middlegame += sign * ISOLATED_MIDDLEGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                } else if ((own & supportMasks[player.ordinal()][square]) == 0 && isStopAttacked(player, square, theirs)) {
+                    middlegame += sign * BACKWARD_MIDDLEGAME;
+                    endgame += sign * BACKWARD_ENDGAME;
+                }
+
+                if ((theirs & passedMasks[player.ordinal()][square]) == 0
+                        && (own & files[file] & passedMasks[player.ordinal()][square]) == 0) {
+                    passed |= 1L << square;
+                    middlegame += sign * PASSED_MIDDLEGAME[relativeRank];
+                    endgame += sign * PASSED_ENDGAME[relativeRank];
+                }
+            }
+        }
+        this.middlegameScores[index] = middlegame;
+        this.endgameScores[index] = endgame;
+        this.passedPawns[index] = passed;
+    }
+
+    // a pawn without support is backward if it cannot advance safely
+    private static boolean isStopAttacked(Player player, int square, long theirs) {
+        int stop = player == Player.WHITE ? square + 8 : square - 8;
+        if (stop < 0 || stop >= 64) return false;
+        int file = stop % 8;
+        long attackers = player == Player.WHITE
+                ? (stop + 8 < 64 ? adjacentFiles[file] & (0xFFL << (8 * (stop / 8 + 1))) : 0)
+                : (stop - 8 >= 0 ? adjacentFiles[file] & (0xFFL << (8 * (stop / 8 - 1))) : 0);
+        return (theirs & attackers) != 0;
+    }
+}
@@ -0,0 +1,541 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.Coordinate;
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import name.ulbricht.chess.game.MoveGenerator;
+import name.ulbricht.chess.game.MoveList;
+import name.ulbricht.chess.game.Piece;
+import name.ulbricht.chess.game.PieceType;
+import name.ulbricht.chess.game.Player;
+import name.ulbricht.chess.game.Rules;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Searches the best move of a position. The search is an iterative deepening negamax search with alpha-beta pruning:
+ * the position is searched with increasing depth, each completed iteration is reported and the best move of the last
+ * completed iteration is the result. The principal variation, the sequence of best moves of both players, is tracked
+ * for each iteration. The results of searched positions are kept in a {@link TranspositionTable}, they are used to
+ * cut off the search of positions that were searched before and to search their best move first.
+ * <p>
+ * The moves are searched in the order of a {@link MovePicker}. Only the first move is searched with the full window,
+ * the other moves are searched with a null window to prove that they are not better (principal variation search). At
+ * the end of each line the captures are searched until the position is quiet. The selective techniques of the
+ * {@link SearchOptions} prune or reduce the lines that are unlikely to change the result.
+ * <p>
+ * Usage: {@code Search [depth <depth>] [nodes <nodes>] [time <millis>] [threads <threads>] [<fen>]}
+ */
+public final class Search {
+
+    /**
+     * The score of a checkmate. A mate found after more plies gets a lower score, so the shortest mate is preferred.
+     */
+    public static final int MATE = 32000;
+
+    static final int MAX_PLY = 128;
+
+    private static final int INFINITY = MATE + 1;
+    private static final int DRAW = 0;
+
+    // the clock is read only every few nodes, the hard time limit may be exceeded by the time of these nodes
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int DEFAULT_TABLE_SIZE = 16;
+
+    // the number of entries of the pawn table of each search thread
+    private static final int PAWN_TABLE_SIZE = 1 << 14;
+
+    // the history scores are halved if one of them exceeds this value, so newer cutoffs count more
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 500};
+    private static final int ASPIRATION_WINDOW = 25;
+
+    // the reductions of late moves by depth and number of the move, they grow with both
+    private static final int[][] reductions = new int[SearchLimits.MAX_DEPTH + 1][64];
+
+    static {
+        for (int depth = 1; depth < reductions.length; depth++) {
+            for (int count = 1; count < reductions[depth].length; count++) {
+                reductions[depth][count] = (int) (0.75 + Math.log(depth) * Math.log(count) / 2.25);
+            }
+        }
+    }
+
+    private final Board board;
+    private final SearchLimits limits;
+    private final SearchOptions options;
+    private final TranspositionTable table;
+    private final Consumer<SearchInfo> listener;
+    private final int index;
+    private final int rootMoves;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] exchangeScores = new int[MAX_PLY][256];
+    private final int[] exchangeGains = new int[StaticExchange.MAX_CAPTURES];
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[Piece.values().length][Coordinate.COLUMNS * Coordinate.ROWS];
+    private final int[][] principalVariations = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLengths = new int[MAX_PLY];
+    private final PawnTable pawnTable = new PawnTable(PAWN_TABLE_SIZE);
+
+    private volatile boolean stopped;
+    private int iteration;
+    private long nodes;
+    private long previousNodes;
+    private long start;
+
+    // the time limits start with the search, or with the ponder hit if the search ponders
+    private volatile boolean pondering;
+    private volatile long clockStart;
+    private volatile long deadline = Long.MAX_VALUE;
+
+    /**
+     * Creates a search for the position of the board with its own transposition table.
+     *
+     * @param board    the board, it will not be changed
+     * @param limits   the limits of the search
+     * @param listener receives the result of each completed iteration
+     */
+    public Search(Board board, SearchLimits limits, Consumer<SearchInfo> listener) {
+        this(board, limits, new TranspositionTable(DEFAULT_TABLE_SIZE), listener);
+    }
+
+    /**
+     * Creates a search for the position of the board. The transposition table can be kept between searches.
+     *
+     * @param board    the board, it will not be changed
+     * @param limits   the limits of the search
+     * @param table    the transposition table
+     * @param listener receives the result of each completed iteration
+     */
+    public Search(Board board, SearchLimits limits, TranspositionTable table, Consumer<SearchInfo> listener) {
+        this(board, limits, SearchOptions.all(), table, listener);
+    }
+
+    /**
+     * Creates a search for the position of the board with the given selective techniques.
+     *
+     * @param board    the board, it will not be changed
+     * @param limits   the limits of the search
+     * @param options  the selective techniques
+     * @param table    the transposition table
+     * @param listener receives the result of each completed iteration
+     */
+    public Search(Board board, SearchLimits limits, SearchOptions options, TranspositionTable table,
+                  Consumer<SearchInfo> listener) {
+        this(board, limits, options, table, listener, 0);
+    }
+
+    /**
+     * Creates one of the searches of a {@link ParallelSearch}. The first search is the main search, the other ones are
+     * helpers that start at different depths, so they fill the shared table with different positions.
+     */
+    Search(Board board, SearchLimits limits, SearchOptions options, TranspositionTable table,
+           Consumer<SearchInfo> listener, int index) {
+        this.index = index;
+        this.board = Objects.requireNonNull(board, "board cannot be null").clone();
+        this.limits = Objects.requireNonNull(limits, "limits cannot be null");
+        this.options = Objects.requireNonNull(options, "options cannot be null");
+        this.table = Objects.requireNonNull(table, "table cannot be null");
+        this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+        for (int i = 0; i < MAX_PLY; i++) {
+            this.moveLists[i] = new MoveList();
+            this.movePickers[i] = new MovePicker();
+        }
+
+        // the attack tables are initialized with the first move generation, this should not count as search time
+        MoveGenerator.legalMoves(this.board, this.moveLists[0]);
+        this.rootMoves = this.moveLists[0].size();
+    }
+
+    /**
+     * Runs the search until a limit is reached or the search is stopped.
+     *
+     * @return the result of the last completed iteration
+     */
+    public SearchInfo search() {
+        this.start = System.nanoTime();
+        if (!this.pondering) startClock(this.start);
+        if (this.index == 0) this.table.newSearch();
+
+        // the helpers of a parallel search are stopped by the main search
+        TimeManager timeManager = this.index == 0 && this.limits.isClock() ? new TimeManager(this.limits) : null;
+
+        SearchInfo result = null;
+        for (int depth = 1 + (this.index & 1); depth <= this.limits.depth; depth++) {
+            this.iteration = depth;
+            int score = result != null && this.options.aspirationWindows && depth >= 4 && !result.isMate()
+                    ? searchAspirationWindow(depth, result.score)
+                    : search(depth, 0, -INFINITY, INFINITY, false);
+
+            // an interrupted iteration is not complete, its result is not used
+            if (this.stopped && result != null) break;
+
+            result = new SearchInfo(depth, score, this.nodes, System.nanoTime() - this.start,
+                    Arrays.copyOf(this.principalVariations[0], this.principalVariationLengths[0]),
+                    this.table.getHashfull(), this.previousNodes > 0 ? (double) this.nodes / this.previousNodes : 0);
+            this.previousNodes = this.nodes;
+            this.listener.accept(result);
+
+            if (this.stopped || result.getBestMove() == Move.NONE || result.isMate()) break;
+
+            // on the clock a single legal move is played at once, a pondering search only follows the best move
+            if (timeManager != null) {
+                boolean pondering = this.pondering;
+                long elapsed = pondering ? 0 : System.nanoTime() - this.clockStart;
+                boolean reached = timeManager.isSoftLimitReached(result, elapsed);
+                if (!pondering && (reached || this.rootMoves == 1)) break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lets the search ignore its time limits until {@link #ponderHit()} is called. The search ponders on the position
+     * after the expected move of the opponent while the opponent thinks. This must be called before the search is run.
+     */
+    public void ponder() {
+        this.pondering = true;
+    }
+
+    /**
+     * Starts the time limits of a pondering search, because the opponent played the expected move. The search goes on
+     * with the time of the move, counted from now.
+     */
+    public void ponderHit() {
+        if (!this.pondering) return;
+        startClock(System.nanoTime());
+        this.pondering = false;
+    }
+
+    private void startClock(long now) {
+        this.clockStart = now;
+        this.deadline = this.limits.millis < Long.MAX_VALUE / 1_000_000L
+                ? now + this.limits.millis * 1_000_000L
+                : Long.MAX_VALUE;
+    }
+
+    /**
+     * Stops the search. The search returns the result of the last completed iteration.
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Returns the number of nodes searched so far. While the search runs in another thread, the value may be slightly
+     * behind.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the ratio of the evaluations that found their pawn structure in the pawn table.
+     *
+     * @return the hit rate from 0 to 1
+     */
+    double getPawnHitRate() {
+        return this.pawnTable.getHitRate();
+    }
+
+    /**
+     * Searches the root with a narrow window around the score of the previous iteration. Most iterations end with a
+     * score inside the window and the narrow window cuts off more. If the score is outside, the window is widened on
+     * that side and the root is searched again.
+     */
+    private int searchAspirationWindow(int depth, int previousScore) {
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - delta, -INFINITY);
+        int beta = Math.min(previousScore + delta, INFINITY);
+        while (true) {
+            int score = search(depth, 0, alpha, beta, false);
+            if (this.stopped) return score;
+
+            delta *= 2;
+            if (score <= alpha) alpha = Math.max(score - delta, -INFINITY);
+            else if (score >= beta) beta = Math.min(score + delta, INFINITY);
+            else return score;
+        }
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, boolean nullMove) {
+        if (depth <= 0) return quiesce(ply, alpha, beta);
+
+        this.principalVariationLengths[ply] = 0;
+        this.nodes++;
+        checkLimits();
+
+        if (ply > 0 && isDraw()) return DRAW;
+        if (ply == MAX_PLY - 1) return Evaluation.evaluate(this.board, this.pawnTable);
+
+        // only a position searched with a null window can be cut off, so the principal variation stays complete
+        boolean principalVariation = beta - alpha > 1;
+
+        long key = this.board.getPositionKey();
+        long entry = this.table.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != TranspositionTable.NONE && !principalVariation && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+                return score;
+        }
+
+        Player player = this.board.getActivePlayer();
+        boolean check = Rules.isInCheck(this.board, player);
+        boolean selective = !principalVariation && !check && Math.abs(beta) < MATE - MAX_PLY;
+        int evaluation = selective ? Evaluation.evaluate(this.board, this.pawnTable) : -INFINITY;
+
+        // near the horizon a position far above beta will not fall below it
+        if (selective && this.options.reverseFutilityPruning && depth <= 3
+                && evaluation - REVERSE_FUTILITY_MARGIN * depth >= beta)
+            return evaluation - REVERSE_FUTILITY_MARGIN * depth;
+
+        // if passing keeps the position above beta, a move will do as well, except in zugzwang positions where every
+        // move makes the position worse, these are likely if the player has only pawns left
+        if (selective && this.options.nullMovePruning && !nullMove && depth >= 3 && evaluation >= beta
+                && hasPieces(player)) {
+            int reduction = 2 + depth / 6;
+            this.board.makeNullMove();
+            int score = -search(depth - 1 - reduction, ply + 1, -beta, -beta + 1, true);
+            this.board.unmakeNullMove();
+
+            if (this.stopped && this.iteration > 1) return 0;
+            if (score >= beta) return score >= MATE - MAX_PLY ? beta : score;
+        }
+
+        // near the horizon the quiet moves cannot raise a position far below alpha
+        boolean futile = selective && this.options.futilityPruning && depth < FUTILITY_MARGINS.length
+                && evaluation + FUTILITY_MARGINS[depth] <= alpha;
+
+        MovePicker picker = this.movePickers[ply];
+        picker.init(this.board, hashMove, this.killers[ply], this.history);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        int count = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            boolean quiet = MovePicker.isQuiet(move);
+
+            this.board.make(move);
+            boolean givesCheck = Rules.isInCheck(this.board, player.opponent());
+            if (futile && count > 0 && quiet && !givesCheck) {
+                this.board.unmake(move);
+                continue;
+            }
+            count++;
+
+            int score;
+            if (count == 1) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha, false);
+            } else {
+                int reduction = 0;
+                if (this.options.lateMoveReductions && depth >= 3 && quiet && !check && !givesCheck
+                        && !isKiller(ply, move)) {
+                    reduction = reductions[Math.min(depth, SearchLimits.MAX_DEPTH)][Math.min(count, 63)];
+                    if (principalVariation) reduction--;
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+
+                score = -search(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, false);
+                if (score > alpha && reduction > 0)
+                    score = -search(depth - 1, ply + 1, -alpha - 1, -alpha, false);
+                if (score > alpha && score < beta)
+                    score = -search(depth - 1, ply + 1, -beta, -alpha, false);
+            }
+            this.board.unmake(move);
+
+            // the first iteration is always completed, so there is a move to play
+            if (this.stopped && this.iteration > 1) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        if (quiet) updateKillersAndHistory(ply, move, depth);
+                        break;
+                    }
+                }
+            }
+        }
+        if (bestMove == Move.NONE) return check ? -MATE + ply : DRAW;
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT
+                : TranspositionTable.UPPER_BOUND;
+        this.table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches the captures and promotions until the position is quiet, so the evaluation is not taken in the middle
+     * of an exchange. The active player may stand pat with the static evaluation instead of capturing. Captures that
+     * lose material by static exchange evaluation are not searched, the other ones are searched in the order of their
+     * gain. In check all moves are searched, because standing pat is not possible.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        this.principalVariationLengths[ply] = 0;
+        this.nodes++;
+        checkLimits();
+
+        if (isDraw()) return DRAW;
+        if (ply == MAX_PLY - 1) return Evaluation.evaluate(this.board, this.pawnTable);
+
+        MoveList moves = this.moveLists[ply];
+        moves.clear();
+        int bestScore;
+        boolean check = Rules.isInCheck(this.board, this.board.getActivePlayer());
+        if (check) {
+            MoveGenerator.legalMoves(this.board, moves);
+            if (moves.isEmpty()) return -MATE + ply;
+            bestScore = -INFINITY;
+        } else {
+            bestScore = Evaluation.evaluate(this.board, this.pawnTable);
+            if (bestScore >= beta) return bestScore;
+            if (bestScore > alpha) alpha = bestScore;
+            MoveGenerator.legalCaptures(this.board, moves);
+        }
+
+        int[] scores = this.exchangeScores[ply];
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            PieceType promotion = Move.promotion(move);
+            int score = check ? 0 : StaticExchange.evaluate(this.board, move, this.exchangeGains);
+            if (check || (score >= 0 && (promotion == null || promotion == PieceType.QUEEN))) {
+                moves.swap(count, i);
+                scores[count++] = score;
+            }
+        }
+        moves.truncate(count);
+
+        for (int i = 0; i < count; i++) {
+            int move = MovePicker.select(moves, scores, i);
+
+            this.board.make(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            this.board.unmake(move);
+
+            if (this.stopped && this.iteration > 1) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private boolean hasPieces(Player player) {
+        return (this.board.occupancy(player)
+                & ~this.board.pieces(Piece.valueOf(PieceType.PAWN, player))
+                & ~this.board.pieces(Piece.valueOf(PieceType.KING, player))) != 0;
+    }
+
+    private boolean isKiller(int ply, int move) {
+        int[] killers = this.killers[ply];
+        return killers[0] == move || killers[1] == move;
+    }
+
+    // a quiet move that caused a cutoff is tried early in the other positions
+    private void updateKillersAndHistory(int ply, int move, int depth) {
+        int[] killers = this.killers[ply];
+        if (killers[0] != move) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+
+        int[] history = this.history[Move.piece(move).ordinal()];
+        history[Move.target(move)] += depth * depth;
+        if (history[Move.target(move)] > MAX_HISTORY) {
+            for (int[] scores : this.history) {
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] /= 2;
+                }
+            }
+        }
+    }
+
+    // mate scores are stored relative to the position, not to the root of the search
+    private static int toTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) return score + ply;
+        if (score < -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > MATE - MAX_PLY) return score - ply;
+        if (score < -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] variation = this.principalVariations[ply];
+        variation[0] = move;
+        int length = this.principalVariationLengths[ply + 1];
+        System.arraycopy(this.principalVariations[ply + 1], 0, variation, 1, length);
+        this.principalVariationLengths[ply] = length + 1;
+    }
+
+    private boolean isDraw() {
+        return this.board.getHalfMoveClock() >= 100
+                || this.board.repetitions() > 0
+                || Rules.isInsufficientMaterial(this.board);
+    }
+
+    private void checkLimits() {
+        if (this.nodes >= this.limits.nodes) this.stopped = true;
+        else if (this.nodes % CHECK_INTERVAL == 0 && System.nanoTime() >= this.deadline) this.stopped = true;
+    }
+
+    public static void main(String[] args) {
+        SearchLimits limits = SearchLimits.infinite();
+        int threads = 1;
+        int offset = 0;
+        boolean limited = false;
+        while (args.length > offset + 1) {
+            String value = args[offset + 1];
+            if (args[offset].equals("depth")) limits = limits.withDepth(Integer.parseInt(value));
+            else if (args[offset].equals("nodes")) limits = limits.withNodes(Long.parseLong(value));
+            else if (args[offset].equals("time")) limits = limits.withTime(Long.parseLong(value));
+            else if (args[offset].equals("threads")) threads = Integer.parseInt(value);
+            else break;
+            limited |= !args[offset].equals("threads");
+            offset += 2;
+        }
+        if (!limited) {
+            System.err.println("Usage: Search [depth <depth>] [nodes <nodes>] [time <millis>] [threads <threads>] [<fen>]");
+            System.exit(1);
+        }
+
+        String fen = args.length > offset
+                ? String.join(" ", Arrays.copyOfRange(args, offset, args.length))
+                : FEN.INITIAL;
+        System.out.println(fen);
+
+        TranspositionTable table = new TranspositionTable(DEFAULT_TABLE_SIZE);
+        SearchInfo result = new ParallelSearch(FEN.createBoard(fen), limits, table, threads, System.out::println).search();
+        System.out.println("best move " + (result.getBestMove() != Move.NONE ? Move.toString(result.getBestMove()) : "none"));
+        System.out.printf("hash hits %.1f %%%n", table.getHitRate() * 100);
+    }
+}
@@ -0,0 +1,97 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Move;
+
+/**
+ * The result of one iteration of a search.
+ */
+public final class SearchInfo {
+
+    public final int depth;
+    public final int score;
+    public final long nodes;
+    public final long nanos;
+    public final int hashfull;
+    private final int[] principalVariation;
+    private final double branchingFactor;
+
+    SearchInfo(int depth, int score, long nodes, long nanos, int[] principalVariation, int hashfull,
+               double branchingFactor) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.principalVariation = principalVariation;
+        this.hashfull = hashfull;
+        this.branchingFactor = branchingFactor;
+    }
+
+    /**
+     * Returns the best move found, the first move of the principal variation.
+     *
+     * @return the encoded move or {@link Move#NONE} if there is no legal move
+     */
+    public int getBestMove() {
+        return this.principalVariation.length > 0 ? this.principalVariation[0] : Move.NONE;
+    }
+
+    /**
+     * Returns the expected sequence of moves of both players.
+     *
+     * @return the encoded moves
+     */
+    public int[] getPrincipalVariation() {
+        return this.principalVariation.clone();
+    }
+
+    /**
+     * Returns the number of nodes per second.
+     *
+     * @return the nodes per second
+     */
+    public long getNodesPerSecond() {
+        return this.nanos > 0 ? this.nodes * 1_000_000_000L / this.nanos : 0;
+    }
+
+    /**
+     * Returns the effective branching factor, the ratio of the nodes searched up to this iteration to the nodes
+     * searched up to the previous iteration. The lower the factor, the less the search grows with the depth.
+     *
+     * @return the branching factor or {@code 0} for the first iteration
+     */
+    public double getEffectiveBranchingFactor() {
+        return this.branchingFactor;
+    }
+
+    /**
+     * Checks if the score is a forced mate for one of the players.
+     *
+     * @return {@code true} if the score is a mate score
+     */
+    public boolean isMate() {
+        return Math.abs(this.score) > Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Returns the number of moves to the mate. The number is negative if the active player gets mated.
+     *
+     * @return the number of moves
+     * @throws IllegalStateException if the score is not a mate score
+     */
+    public int getMateMoves() {
+        if (!isMate()) throw new IllegalStateException("Not a mate score: " + this.score);
+        return this.score > 0 ? (Search.MATE - this.score + 1) / 2 : -(Search.MATE + this.score) / 2;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("depth %2d score %s nodes %,d time %.3f s nps %,d ebf %.2f hashfull %d pv",
+                this.depth, isMate() ? "mate " + getMateMoves() : "cp " + this.score,
+                this.nodes, this.nanos / 1e9, getNodesPerSecond(), this.branchingFactor, this.hashfull));
+        for (int move : this.principalVariation) {
+            sb.append(' ').append(Move.toString(move));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package name.ulbricht.chess.engine;
+
+/**
+ * The limits of a search. The search stops as soon as one of the limits is reached, so the limits can be combined.
+ * <p>
+ * A search on the clock has a soft time limit in addition to the hard time limit. No new iteration is started after
+ * the soft limit, the search extends it if the best move is unstable or the score drops.
+ */
+public final class SearchLimits {
+
+    /**
+     * The maximum depth of a search.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final SearchLimits INFINITE = new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, Long.MAX_VALUE,
+            Long.MAX_VALUE);
+
+    public final int depth;
+    public final long nodes;
+    public final long millis;
+    public final long softMillis;
+
+    private SearchLimits(int depth, long nodes, long millis, long softMillis) {
+        if (depth < 1 || depth > MAX_DEPTH) throw new IllegalArgumentException("Illegal depth: " + depth);
+        if (nodes < 1) throw new IllegalArgumentException("Illegal nodes: " + nodes);
+        if (millis < 1) throw new IllegalArgumentException("Illegal time: " + millis);
+        if (softMillis < 1) throw new IllegalArgumentException("Illegal soft time: " + softMillis);
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.softMillis = softMillis;
+    }
+
+    /**
+     * Returns limits that do not stop the search before the maximum depth.
+     *
+     * @return the limits
+     */
+    public static SearchLimits infinite() {
+        return INFINITE;
+    }
+
+    /**
+     * Returns limits for a search up to the given depth.
+     *
+     * @param depth the depth in plies, from 1 to {@link #MAX_DEPTH}
+     * @return the limits
+     */
+    public static SearchLimits depth(int depth) {
+        return INFINITE.withDepth(depth);
+    }
+
+    /**
+     * Returns limits for a search of at most the given number of nodes.
+     *
+     * @param nodes the number of nodes, at least 1
+     * @return the limits
+     */
+    public static SearchLimits nodes(long nodes) {
+        return INFINITE.withNodes(nodes);
+    }
+
+    /**
+     * Returns limits for a search of at most the given time.
+     *
+     * @param millis the time in milliseconds, at least 1
+     * @return the limits
+     */
+    public static SearchLimits time(long millis) {
+        return INFINITE.withTime(millis);
+    }
+
+    /**
+     * Returns limits for a search of a game on the clock.
+     *
+     * @param time      the remaining time of the active player in milliseconds
+     * @param increment the increment per move in milliseconds
+     * @param movesToGo the number of moves to the next time control or {@code 0} if all moves must be played in the
+     *                  remaining time
+     * @return the limits
+     */
+    public static SearchLimits clock(long time, long increment, int movesToGo) {
+        return INFINITE.withClock(time, increment, movesToGo);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, this.nodes, this.millis, this.softMillis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(this.depth, nodes, this.millis, this.softMillis);
+    }
+
+    public SearchLimits withTime(long millis) {
+        return new SearchLimits(this.depth, this.nodes, millis, this.softMillis);
+    }
+
+    public SearchLimits withClock(long time, long increment, int movesToGo) {
+        long hardMillis = TimeManager.hardLimit(time, increment, movesToGo);
+        return new SearchLimits(this.depth, this.nodes, Math.min(this.millis, hardMillis),
+                TimeManager.softLimit(time, increment, movesToGo));
+    }
+
+    /**
+     * Checks if the search is on the clock, so it has a soft time limit.
+     *
+     * @return {@code true} if the soft time limit is set
+     */
+    public boolean isClock() {
+        return this.softMillis != Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "{depth=" + this.depth +
+                (this.nodes != Long.MAX_VALUE ? ", nodes=" + this.nodes : "") +
+                (this.millis != Long.MAX_VALUE ? ", millis=" + this.millis : "") +
+                (this.softMillis != Long.MAX_VALUE ? ", softMillis=" + this.softMillis : "") + "}";
+    }
+}
@@ -0,0 +1,96 @@
+package name.ulbricht.chess.engine;
+
+/**
+ * The selective techniques used by a search. Each technique can be switched off, so its gain can be measured.
+ */
+public final class SearchOptions {
+
+    private static final SearchOptions ALL = new SearchOptions(true, true, true, true, true);
+    private static final SearchOptions NONE = new SearchOptions(false, false, false, false, false);
+
+    /**
+     * Passes the move and searches with reduced depth, a position that stays above beta is cut off.
+     */
+    public final boolean nullMovePruning;
+
+    /**
+     * Searches the late quiet moves with reduced depth and only searches them again if they turn out to be good.
+     */
+    public final boolean lateMoveReductions;
+
+    /**
+     * Skips the quiet moves near the horizon if the evaluation is far below alpha.
+     */
+    public final boolean futilityPruning;
+
+    /**
+     * Cuts off a position near the horizon if the evaluation is far above beta.
+     */
+    public final boolean reverseFutilityPruning;
+
+    /**
+     * Searches each iteration with a narrow window around the score of the previous iteration.
+     */
+    public final boolean aspirationWindows;
+
+    private SearchOptions(boolean nullMovePruning, boolean lateMoveReductions, boolean futilityPruning,
+                          boolean reverseFutilityPruning, boolean aspirationWindows) {
+        this.nullMovePruning = nullMovePruning;
+        this.lateMoveReductions = lateMoveReductions;
+        this.futilityPruning = futilityPruning;
+        this.reverseFutilityPruning = reverseFutilityPruning;
+        this.aspirationWindows = aspirationWindows;
+    }
+
+    /**
+     * Returns the options with all techniques switched on.
+     *
+     * @return the options
+     */
+    public static SearchOptions all() {
+        return ALL;
+    }
+
+    /**
+     * Returns the options with all techniques switched off, the search is a plain alpha-beta search.
+     *
+     * @return the options
+     */
+    public static SearchOptions none() {
+        return NONE;
+    }
+
+    public SearchOptions withNullMovePruning(boolean nullMovePruning) {
+        return new SearchOptions(nullMovePruning, this.lateMoveReductions, this.futilityPruning,
+                this.reverseFutilityPruning, this.aspirationWindows);
+    }
+
+    public SearchOptions withLateMoveReductions(boolean lateMoveReductions) {
+        return new SearchOptions(this.nullMovePruning, lateMoveReductions, this.futilityPruning,
+                this.reverseFutilityPruning, this.aspirationWindows);
+    }
+
+    public SearchOptions withFutilityPruning(boolean futilityPruning) {
+        return new SearchOptions(this.nullMovePruning, this.lateMoveReductions, futilityPruning,
+                this.reverseFutilityPruning, this.aspirationWindows);
+    }
+
+    public SearchOptions withReverseFutilityPruning(boolean reverseFutilityPruning) {
+        return new SearchOptions(this.nullMovePruning, this.lateMoveReductions, this.futilityPruning,
+                reverseFutilityPruning, this.aspirationWindows);
+    }
+
+    public SearchOptions withAspirationWindows(boolean aspirationWindows) {
+        return new SearchOptions(this.nullMovePruning, this.lateMoveReductions, this.futilityPruning,
+                this.reverseFutilityPruning, aspirationWindows);
+    }
+
+    @Override
+    public String toString() {
+        return "{nullMovePruning=" + this.nullMovePruning +
+                ", lateMoveReductions=" + this.lateMoveReductions +
+                ", futilityPruning=" + this.futilityPruning +
+                ", reverseFutilityPruning=" + this.reverseFutilityPruning +
+                ", aspirationWindows=" + this.aspirationWindows + "}";
+    }
+}
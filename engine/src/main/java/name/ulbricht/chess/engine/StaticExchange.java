@@ -0,0 +1,107 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.Coordinate;
+import name.ulbricht.chess.game.Move;
+import name.ulbricht.chess.game.Piece;
+import name.ulbricht.chess.game.PieceType;
+import name.ulbricht.chess.game.Player;
+import name.ulbricht.chess.game.PlyType;
+import name.ulbricht.chess.game.Rules;
+
+/**
+ * Static exchange evaluation: calculates the material gained by a capture if both players recapture on the target
+ * square with their least valuable piece as long as this is profitable. The exchange is calculated with the attack
+ * tables only, no move is performed on the board. Sliding pieces behind a capturing piece join the exchange, pins are
+ * not considered.
+ */
+final class StaticExchange {
+
+    /**
+     * The length of the array of the gains, one entry for each capture of the exchange.
+     */
+    static final int MAX_CAPTURES = 32;
+
+    private static final int KING_VALUE = 20000;
+
+    // the piece types ordered by their value, the least valuable attacker captures first
+    private static final PieceType[] attackerTypes = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+
+    /**
+     * Evaluates the exchange started by the encoded move.
+     *
+     * @param board the board before the move
+     * @param move  the encoded move
+     * @return the material gained by the active player in centipawns, negative if the move loses material
+     */
+    static int evaluate(Board board, int move) {
+        return evaluate(board, move, new int[MAX_CAPTURES]);
+    }
+
+    /**
+     * Evaluates the exchange started by the encoded move. The given array is used for the gains of the captures, so
+     * the search does not allocate for each capture.
+     *
+     * @param board the board before the move
+     * @param move  the encoded move
+     * @param gains the array for the gains, with a length of {@link #MAX_CAPTURES}
+     * @return the material gained by the active player in centipawns, negative if the move loses material
+     */
+    static int evaluate(Board board, int move, int[] gains) {
+        int source = Move.source(move);
+        int target = Move.target(move);
+        Piece captured = Move.capturedPiece(move);
+        PieceType promotion = Move.promotion(move);
+
+        long occupied = board.occupancy() ^ (1L << source);
+        if (Move.type(move) == PlyType.PAWN_EN_PASSANT)
+            occupied ^= 1L << (board.getActivePlayer() == Player.WHITE ? target - Coordinate.COLUMNS : target + Coordinate.COLUMNS);
+
+        gains[0] = captured != null ? value(captured.type) : 0;
+        int onTarget;
+        if (promotion != null) {
+            gains[0] += value(promotion) - value(PieceType.PAWN);
+            onTarget = value(promotion);
+        } else {
+            onTarget = value(Move.piece(move).type);
+        }
+
+        Player side = board.getActivePlayer().opponent();
+        long attacker = 0;
+        int depth = 0;
+        while (true) {
+            // the gain if the piece on the target square is captured, this is only used if there is a capturing piece
+            depth++;
+            gains[depth] = onTarget - gains[depth - 1];
+
+            occupied ^= attacker;
+            long attackers = Rules.attackers(board, target, occupied) & occupied & board.occupancy(side);
+            if (attackers == 0) break;
+
+            for (PieceType type : attackerTypes) {
+                long pieces = attackers & board.pieces(Piece.valueOf(type, side));
+                if (pieces != 0) {
+                    attacker = pieces & -pieces;
+                    onTarget = value(type);
+                    break;
+                }
+            }
+            side = side.opponent();
+        }
+
+        // each player may stop the exchange instead of capturing
+        while (--depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+        }
+        return gains[0];
+    }
+
+    private static int value(PieceType type) {
+        return type == PieceType.KING ? KING_VALUE : Evaluation.value(type);
+    }
+
+    private StaticExchange() {
+        // hidden
+    }
+}
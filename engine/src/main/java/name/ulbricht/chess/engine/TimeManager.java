@@ -0,0 +1,97 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Move;
+
+import java.util.Objects;
+
+/**
+ * Allocates the time of a search on the clock and decides after each iteration if the next one is started.
+ * <p>
+ * The hard limit ends the search in any case, it is checked by the search every few nodes. The soft limit is the time
+ * the search should normally take. No iteration is started after it, as the iteration would most likely not be
+ * completed. The soft limit is extended if the best move changed in the last iterations or if the score dropped, in
+ * both cases another iteration is likely to find a better move.
+ */
+final class TimeManager {
+
+    // the time kept back for the communication with the GUI
+    static final long MOVE_OVERHEAD = 50;
+
+    // the expected number of moves if the remaining time is for the rest of the game
+    static final int DEFAULT_MOVES_TO_GO = 30;
+
+    // the hard limit is this multiple of the soft limit, if the remaining time allows it
+    private static final int HARD_FACTOR = 4;
+
+    // a score this much below the score of the previous iteration extends the soft limit
+    private static final int SCORE_DROP = 30;
+
+    private final long softNanos;
+    private final long hardNanos;
+
+    private int previousBestMove = Move.NONE;
+    private int previousScore;
+    private double bestMoveChanges;
+
+    /**
+     * Creates a time manager for a search with the given limits.
+     *
+     * @param limits the limits of the search on the clock
+     */
+    TimeManager(SearchLimits limits) {
+        Objects.requireNonNull(limits, "limits cannot be null");
+        if (!limits.isClock()) throw new IllegalArgumentException("Not a clock search: " + limits);
+        this.softNanos = limits.softMillis * 1_000_000L;
+        this.hardNanos = Math.min(limits.millis, Long.MAX_VALUE / 1_000_000L) * 1_000_000L;
+    }
+
+    /**
+     * Returns the soft limit of a search on the clock, the time it should normally take.
+     *
+     * @param time      the remaining time in milliseconds
+     * @param increment the increment per move in milliseconds
+     * @param movesToGo the number of moves to the next time control or {@code 0} if unknown
+     * @return the soft limit in milliseconds, at least 1
+     */
+    static long softLimit(long time, long increment, int movesToGo) {
+        long available = available(time);
+        long moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        return Math.max(1, Math.min(available / moves + Math.max(0, increment) * 3 / 4, available));
+    }
+
+    /**
+     * Returns the hard limit of a search on the clock, the time it must not exceed.
+     *
+     * @param time      the remaining time in milliseconds
+     * @param increment the increment per move in milliseconds
+     * @param movesToGo the number of moves to the next time control or {@code 0} if unknown
+     * @return the hard limit in milliseconds, at least 1
+     */
+    static long hardLimit(long time, long increment, int movesToGo) {
+        return Math.max(1, Math.min(HARD_FACTOR * softLimit(time, increment, movesToGo), available(time)));
+    }
+
+    private static long available(long time) {
+        return Math.max(1, time - MOVE_OVERHEAD);
+    }
+
+    /**
+     * Checks after a completed iteration if the search should stop.
+     *
+     * @param info  the result of the iteration
+     * @param nanos the time since the clock of the search started, {@code 0} while the search ponders
+     * @return {@code true} if the extended soft limit is reached
+     */
+    boolean isSoftLimitReached(SearchInfo info, long nanos) {
+        // older changes of the best move count less
+        this.bestMoveChanges /= 2;
+        if (this.previousBestMove != Move.NONE && info.getBestMove() != this.previousBestMove)
+            this.bestMoveChanges += 1;
+        boolean scoreDropped = this.previousBestMove != Move.NONE && info.score <= this.previousScore - SCORE_DROP;
+        this.previousBestMove = info.getBestMove();
+        this.previousScore = info.score;
+
+        double factor = (1 + this.bestMoveChanges) * (scoreDropped ? 1.5 : 1);
+        return nanos >= Math.min(this.softNanos * factor, this.hardNanos);
+    }
+}
@@ -0,0 +1,201 @@
+package name.ulbricht.chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores the results of searched positions by their Zobrist key, so a position reached again by another sequence of
+ * moves does not have to be searched again.
+ * <p>
+ * The table has a fixed size and is preallocated. Each entry is packed into two {@code long} values, the key and the
+ * data. The key is stored XOR-ed with the data, so an entry that was torn by a concurrent write of another thread does
+ * not match its key any more. This makes the table safe to share between search threads without locks.
+ * <p>
+ * Two entries form a bucket. The first one keeps the deepest result, it is only replaced by a result of at least the
+ * same depth or by a result of a newer search. The second one always takes the latest result.
+ * <p>
+ * The bits of the data are used as follows:
+ * <pre>
+ *  0 - 25  best move
+ * 26 - 41  score
+ * 42 - 49  depth
+ * 50 - 51  bound
+ * 52 - 57  age of the search
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    /**
+     * The score is an upper bound, no move reached alpha.
+     */
+    public static final int UPPER_BOUND = 1;
+
+    /**
+     * The score is a lower bound, a move reached beta.
+     */
+    public static final int LOWER_BOUND = 2;
+
+    /**
+     * The score is exact.
+     */
+    public static final int EXACT = UPPER_BOUND | LOWER_BOUND;
+
+    /**
+     * The value returned by {@link #probe(long)} if the position is not stored. No stored entry has this value.
+     */
+    static final long NONE = 0L;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int BUCKET_SIZE = 2;
+
+    private static final int MOVE_MASK = (1 << 26) - 1;
+    private static final int SCORE_SHIFT = 26;
+    private static final int DEPTH_SHIFT = 42;
+    private static final int BOUND_SHIFT = 50;
+    private static final int AGE_SHIFT = 52;
+    private static final int AGE_MASK = 0x3F;
+
+    private final int megabytes;
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a table of the given size. The number of buckets is rounded down to a power of two.
+     *
+     * @param megabytes the size in megabytes, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Illegal size: " + megabytes);
+        this.megabytes = megabytes;
+
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (ENTRY_BYTES * BUCKET_SIZE));
+        int entries = (int) Math.min(buckets * BUCKET_SIZE, Integer.highestOneBit(Integer.MAX_VALUE));
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.bucketMask = entries / BUCKET_SIZE - 1;
+    }
+
+    public int getMegabytes() {
+        return this.megabytes;
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.data, 0L);
+        this.age = 0;
+        this.probes.reset();
+        this.hits.reset();
+    }
+
+    /**
+     * Starts a new search. The entries of older searches are replaced first.
+     */
+    public void newSearch() {
+        this.age = (this.age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Looks up the entry of the position.
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed data of the entry or {@link #NONE} if the position is not stored
+     */
+    long probe(long key) {
+        this.probes.increment();
+        int index = index(key);
+        for (int i = index; i < index + BUCKET_SIZE; i++) {
+            long entry = this.data[i];
+            if ((this.keys[i] ^ entry) == key && entry != NONE) {
+                this.hits.increment();
+                return entry;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Stores the result of a search of the position.
+     *
+     * @param key   the Zobrist key of the position
+     * @param move  the best move or {@code 0} if there is none
+     * @param score the score, mate scores must be relative to the position
+     * @param depth the searched depth
+     * @param bound the kind of the score, {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        int age = this.age;
+        long entry = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+
+        // the first entry keeps the deeper result of the current search, otherwise the second entry is replaced
+        int index = index(key);
+        long deepest = this.data[index];
+        if ((this.keys[index] ^ deepest) == key
+                || depth >= depth(deepest)
+                || ((deepest >>> AGE_SHIFT) & AGE_MASK) != age) {
+            this.keys[index] = key ^ entry;
+            this.data[index] = entry;
+        } else {
+            this.keys[index + 1] = key ^ entry;
+            this.data[index + 1] = entry;
+        }
+    }
+
+    static int move(long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    static int score(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    static int depth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    static int bound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 0x3);
+    }
+
+    /**
+     * Returns how full the table is, as the number of entries of the current search per thousand entries. The value is
+     * estimated from the first thousand entries.
+     *
+     * @return the fill in permille
+     */
+    public int getHashfull() {
+        int age = this.age;
+        int samples = Math.min(1000, this.data.length);
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            long entry = this.data[i];
+            if (entry != NONE && ((entry >>> AGE_SHIFT) & AGE_MASK) == age) used++;
+        }
+        return used * 1000 / samples;
+    }
+
+    /**
+     * Returns the ratio of successful lookups to all lookups since the table was created or cleared.
+     *
+     * @return the hit rate from 0 to 1
+     */
+    public double getHitRate() {
+        long probes = this.probes.sum();
+        return probes > 0 ? (double) this.hits.sum() / probes : 0;
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & this.bucketMask) * BUCKET_SIZE;
+    }
+}
@@ -0,0 +1,31 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class EvaluationTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 1\trnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1\tr3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1\t8/4p1p1/8/1r3P1K/kp5R/3P4/2P5/8 b - - 0 1"})
+    void testSymmetry(String fen, String mirroredFen) {
+        // the score of the active player does not depend on the color
+        assertEquals(Evaluation.evaluate(FEN.createBoard(fen), new PawnTable(16)), Evaluation.evaluate(FEN.createBoard(mirroredFen), new PawnTable(16)));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "4k3/8/8/8/8/8/8/3QK3 w - - 0 1\t4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/3P4/4K3 w - - 0 1\t4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1\t4k3/8/8/8/8/8/8/3QK3 b - - 0 1",
+            "4k3/p7/8/4P3/8/8/8/4K3 w - - 0 1\t4k3/3p4/8/4P3/8/8/8/4K3 w - - 0 1"})
+    void testMaterial(String better, String worse) {
+        assertTrue(Evaluation.evaluate(FEN.createBoard(better), new PawnTable(16)) > Evaluation.evaluate(FEN.createBoard(worse), new PawnTable(16)));
+    }
+}
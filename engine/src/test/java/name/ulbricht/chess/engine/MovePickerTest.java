@@ -0,0 +1,76 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import name.ulbricht.chess.game.MoveGenerator;
+import name.ulbricht.chess.game.MoveList;
+import name.ulbricht.chess.game.Piece;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MovePickerTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"})
+    void testAllMoves(String fen) {
+        Board board = FEN.createBoard(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+
+        // every legal move is returned exactly once, regardless of the hash move and the killers
+        for (int i = 0; i <= moves.size(); i++) {
+            int hashMove = i < moves.size() ? moves.get(i) : Move.NONE;
+            int[] killers = {moves.size() > 0 ? moves.get(moves.size() - 1) : Move.NONE, Move.NONE};
+            List<Integer> picked = pick(board, hashMove, killers, new int[Piece.values().length][64]);
+
+            Set<Integer> expected = new HashSet<>();
+            for (int j = 0; j < moves.size(); j++) {
+                expected.add(moves.get(j));
+            }
+            assertEquals(moves.size(), picked.size());
+            assertEquals(expected, new HashSet<>(picked));
+            if (hashMove != Move.NONE) assertEquals(hashMove, (int) picked.get(0));
+        }
+    }
+
+    @Test
+    void testOrder() {
+        // the knight can capture the undefended queen or the pawn defended by the king
+        Board board = FEN.createBoard("4k3/5p2/2q5/4N3/8/8/8/4K3 w - - 0 1");
+        int[][] history = new int[Piece.values().length][64];
+        history[Piece.WHITE_KING.ordinal()][Move.target(Move.parse(board, "e1f1"))] = 100;
+
+        List<Integer> picked = pick(board, Move.NONE, new int[]{Move.parse(board, "e1d1"), Move.NONE}, history);
+
+        assertEquals("e5c6", Move.toString(picked.get(0)));
+        assertEquals("e1d1", Move.toString(picked.get(1)));
+        assertEquals("e1f1", Move.toString(picked.get(2)));
+        assertEquals("e5f7", Move.toString(picked.get(picked.size() - 1)));
+    }
+
+    private static List<Integer> pick(Board board, int hashMove, int[] killers, int[][] history) {
+        MovePicker picker = new MovePicker();
+        picker.init(board, hashMove, killers, history);
+        List<Integer> picked = new ArrayList<>();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            picked.add(move);
+        }
+        assertTrue(picked.size() < 256);
+        return picked;
+    }
+}
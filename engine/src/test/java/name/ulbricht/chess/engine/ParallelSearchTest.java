@@ -0,0 +1,84 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ParallelSearchTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "1\t6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\t3\ta1a8",
+            "2\t6k1/8/6K1/8/8/8/8/1R6 w - - 0 1\t5\tb1b8",
+            "4\tk7/8/1K6/8/8/8/8/2R5 w - - 0 1\t5\tc1c8",
+            "4\tr5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1\t5\ta8a1"})
+    void testMate(int threads, String fen, int depth, String bestMove) {
+        ParallelSearch search = new ParallelSearch(FEN.createBoard(fen), SearchLimits.depth(depth),
+                new TranspositionTable(1), threads, info -> {
+        });
+        SearchInfo result = search.search();
+
+        assertEquals(bestMove, Move.toString(result.getBestMove()));
+        assertTrue(result.isMate(), result.toString());
+        assertEquals(threads, search.getThreads());
+    }
+
+    @Test
+    void testNodes() {
+        List<SearchInfo> infos = new ArrayList<>();
+        ParallelSearch search = new ParallelSearch(FEN.createBoard(FEN.INITIAL), SearchLimits.depth(4),
+                new TranspositionTable(1), 3, infos::add);
+        SearchInfo result = search.search();
+
+        assertEquals(infos.get(infos.size() - 1), result);
+        assertTrue(result.nodes <= search.getNodes(), result + " / " + search.getNodes());
+        for (int i = 1; i < infos.size(); i++) {
+            assertTrue(infos.get(i).nodes >= infos.get(i - 1).nodes);
+        }
+    }
+
+    @Test
+    void testNodeLimit() {
+        ParallelSearch search = new ParallelSearch(FEN.createBoard(FEN.INITIAL), SearchLimits.nodes(20_000),
+                new TranspositionTable(1), 2, info -> {
+        });
+        search.search();
+
+        // the first iteration is always completed, so the limit can be exceeded by a few nodes
+        assertTrue(search.getNodes() < 21_000, Long.toString(search.getNodes()));
+    }
+
+    @Test
+    void testStop() {
+        ParallelSearch search = new ParallelSearch(FEN.createBoard(FEN.INITIAL), SearchLimits.infinite(),
+                new TranspositionTable(1), 2, info -> {
+        });
+        new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            search.stop();
+        }).start();
+        SearchInfo result = search.search();
+
+        assertTrue(result.getBestMove() != Move.NONE, result.toString());
+    }
+
+    @Test
+    void testIllegalThreads() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(FEN.createBoard(FEN.INITIAL),
+                SearchLimits.depth(1), new TranspositionTable(1), 0, info -> {
+        }));
+    }
+}
@@ -0,0 +1,73 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.FEN;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class PawnTableTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1\t0\t0",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\t0\t0",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1\t0\t-5",
+            "4k3/4p3/8/8/8/8/4P3/4K3 w - - 0 1\t0\t0",
+            "4k3/8/8/8/8/4P3/4P3/4K3 w - - 0 1\t-10\t-30",
+            "4k3/8/8/8/8/8/3PP3/4K3 w - - 0 1\t10\t20",
+            "4k3/8/8/3pp3/8/8/3PP3/4K3 w - - 0 1\t0\t0",
+            "4k3/8/8/8/1p1P4/8/2P5/4K3 w - - 0 1\t12\t40",
+            "4k3/8/8/8/8/4P3/8/4K3 b - - 0 1\t5\t5"})
+    void testScores(String fen, int middlegame, int endgame) {
+        PawnTable table = new PawnTable(16);
+        int entry = table.probe(FEN.createBoard(fen));
+        assertEquals(middlegame, table.middlegameScore(entry));
+        assertEquals(endgame, table.endgameScore(entry));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\t",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1\te2",
+            "4k3/4p3/8/8/8/8/4P3/4K3 w - - 0 1\t",
+            "4k3/3p4/8/8/8/8/4P3/4K3 w - - 0 1\t",
+            "4k3/8/8/8/8/8/2p1P3/4K3 w - - 0 1\tc2 e2",
+            "4k3/8/8/4p3/4P3/8/8/4K3 w - - 0 1\t",
+            "4k3/8/8/8/4P3/4P3/8/4K3 w - - 0 1\te4"})
+    void testPassedPawns(String fen, String squares) {
+        PawnTable table = new PawnTable(16);
+        int entry = table.probe(FEN.createBoard(fen));
+        long expected = 0;
+        if (squares != null) {
+            for (String square : squares.split(" ")) {
+                expected |= 1L << ((square.charAt(1) - '1') * 8 + (square.charAt(0) - 'a'));
+            }
+        }
+        assertEquals(expected, table.passedPawns(entry));
+    }
+
+    @Test
+    void testCache() {
+        PawnTable table = new PawnTable(16);
+        Board board = FEN.createBoard(FEN.INITIAL);
+        int entry = table.probe(board);
+        assertEquals(0, table.getHitRate());
+        assertEquals(entry, table.probe(board));
+        assertEquals(0.5, table.getHitRate());
+    }
+
+    @Test
+    void testHitRate() {
+        Search search = new Search(
+                FEN.createBoard("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"),
+                SearchLimits.depth(5), new TranspositionTable(1), info -> {
+        });
+        search.search();
+        // the positions of a search mostly differ in the pieces, not in the pawns
+        assertTrue(search.getPawnHitRate() > 0.9, () -> "hit rate " + search.getPawnHitRate());
+    }
+}
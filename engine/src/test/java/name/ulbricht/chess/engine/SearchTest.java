@@ -0,0 +1,158 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class SearchTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\t3\ta1a8\t1",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4\t3\th5f7\t1",
+            "6k1/8/6K1/8/8/8/8/1R6 w - - 0 1\t5\tb1b8\t1",
+            "k7/8/1K6/8/8/8/8/2R5 w - - 0 1\t5\tc1c8\t1",
+            "r5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1\t5\ta8a1\t1"})
+    void testMate(String fen, int depth, String bestMove, int mateMoves) {
+        SearchInfo result = new Search(FEN.createBoard(fen), SearchLimits.depth(depth), info -> {
+        }).search();
+
+        assertEquals(bestMove, Move.toString(result.getBestMove()));
+        assertTrue(result.isMate(), result.toString());
+        assertEquals(mateMoves, result.getMateMoves());
+    }
+
+    @Test
+    void testZugzwang() {
+        // every move of black loses, passing would not, so null move pruning cannot find the mate
+        SearchInfo result = new Search(FEN.createBoard("kbK5/pp6/1P6/8/8/8/8/R7 w - - 0 1"), SearchLimits.depth(5),
+                SearchOptions.all().withNullMovePruning(false), new TranspositionTable(1), info -> {
+        }).search();
+
+        assertEquals("a1a6", Move.toString(result.getBestMove()));
+        assertEquals(2, result.getMateMoves());
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"})
+    void testOptions(String fen) {
+        // the selective techniques search fewer nodes than the plain alpha-beta search
+        SearchInfo none = new Search(FEN.createBoard(fen), SearchLimits.depth(5), SearchOptions.none(),
+                new TranspositionTable(1), info -> {
+        }).search();
+        SearchInfo all = new Search(FEN.createBoard(fen), SearchLimits.depth(5), SearchOptions.all(),
+                new TranspositionTable(1), info -> {
+        }).search();
+
+        assertTrue(all.nodes < none.nodes, all + " / " + none);
+        assertTrue(all.getEffectiveBranchingFactor() > 0, all.toString());
+    }
+
+    @Test
+    void testCapture() {
+        SearchInfo result = new Search(FEN.createBoard("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"),
+                SearchLimits.depth(2), info -> {
+        }).search();
+
+        assertEquals("d2d5", Move.toString(result.getBestMove()));
+        assertTrue(result.score > 400, result.toString());
+    }
+
+    @Test
+    void testQuiescence() {
+        // the pawn is defended, capturing it with the queen at the horizon of the search loses the queen
+        SearchInfo result = new Search(FEN.createBoard("4k3/8/3p4/4p3/8/8/8/4QK2 w - - 0 1"),
+                SearchLimits.depth(1), info -> {
+        }).search();
+
+        assertTrue(!"e1e5".equals(Move.toString(result.getBestMove())), result.toString());
+        assertTrue(result.score > 600, result.toString());
+    }
+
+    @Test
+    void testMated() {
+        SearchInfo result = new Search(FEN.createBoard("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"),
+                SearchLimits.depth(3), info -> {
+        }).search();
+
+        assertEquals(Move.NONE, result.getBestMove());
+        assertEquals(-Search.MATE, result.score);
+        assertEquals(0, result.getMateMoves());
+    }
+
+    @Test
+    void testStalemate() {
+        SearchInfo result = new Search(FEN.createBoard("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"),
+                SearchLimits.depth(3), info -> {
+        }).search();
+
+        assertEquals(Move.NONE, result.getBestMove());
+        assertEquals(0, result.score);
+    }
+
+    @Test
+    void testIterations() {
+        List<SearchInfo> iterations = new ArrayList<>();
+        SearchInfo result = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.depth(4), iterations::add).search();
+
+        assertEquals(4, iterations.size());
+        for (int i = 0; i < iterations.size(); i++) {
+            assertEquals(i + 1, iterations.get(i).depth);
+            assertEquals(i + 1, iterations.get(i).getPrincipalVariation().length);
+        }
+        assertEquals(iterations.get(3), result);
+    }
+
+    @Test
+    void testNodeLimit() {
+        SearchInfo result = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.nodes(5000), info -> {
+        }).search();
+
+        assertTrue(result.nodes <= 5000, result.toString());
+        assertTrue(result.getBestMove() != Move.NONE);
+    }
+
+    @Test
+    void testTimeLimit() {
+        long start = System.nanoTime();
+        SearchInfo result = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.time(200), info -> {
+        }).search();
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertTrue(millis < 1000, "Search took " + millis + " ms");
+        assertTrue(result.getBestMove() != Move.NONE);
+    }
+
+    @Test
+    void testClock() {
+        long start = System.nanoTime();
+        SearchInfo result = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.clock(2000, 0, 0), info -> {
+        }).search();
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertTrue(millis < 1000, "Search took " + millis + " ms");
+        assertTrue(result.getBestMove() != Move.NONE);
+    }
+
+    @Test
+    void testSingleMove() {
+        SearchInfo result = new Search(FEN.createBoard("k7/8/8/8/8/8/1r6/K6r w - - 0 1"),
+                SearchLimits.clock(60000, 0, 0), info -> {
+        }).search();
+
+        // on the clock the only legal move is played after the first iteration
+        assertEquals(1, result.depth);
+        assertEquals("a1b2", Move.toString(result.getBestMove()));
+    }
+}
@@ -0,0 +1,39 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class StaticExchangeTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            // undefended pawn
+            "1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1\te1e5\t100",
+            // pawn defended by a pawn
+            "4k3/8/3p4/4p3/8/8/8/4RK2 w - - 0 1\te1e5\t-400",
+            // knight defended by a pawn, captured by a pawn
+            "4k3/8/3p4/4n3/3P4/8/8/4K3 w - - 0 1\td4e5\t220",
+            // queen takes a defended pawn
+            "4k3/8/3p4/4p3/8/8/8/4QK2 w - - 0 1\te1e5\t-800",
+            // rook defended by a rook, the x-ray of the second rook wins the exchange
+            "3rk3/3r4/8/3r4/8/8/3R4/3RK3 w - - 0 1\td2d5\t0",
+            // the queen behind the rook joins the exchange
+            "4k3/8/4r3/8/8/8/4R3/4QK2 w - - 0 1\te2e6\t500",
+            // the king recaptures, but not if the piece is still defended
+            "8/8/3k4/3p4/8/8/3R4/6K1 w - - 0 1\td2d5\t-400",
+            "8/8/3k4/3p4/8/8/3R4/3R2K1 w - - 0 1\td2d5\t100",
+            // en passant
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1\te5d6\t100",
+            // promotion
+            "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1\tb7b8q\t800",
+            "1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1\ta7a8q\t-100"})
+    void testEvaluate(String fen, String move, int expected) {
+        Board board = FEN.createBoard(fen);
+        assertEquals(expected, StaticExchange.evaluate(board, Move.parse(board, move)));
+    }
+}
@@ -0,0 +1,90 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.MoveGenerator;
+import name.ulbricht.chess.game.MoveList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TimeManagerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "60000\t0\t0\t1998\t7992",
+            "60000\t1000\t0\t2748\t10992",
+            "10000\t0\t10\t995\t3980",
+            "10000\t0\t1\t9950\t9950",
+            "1000\t5000\t0\t950\t950",
+            "30\t0\t0\t1\t1",
+            "-100\t0\t0\t1\t1"})
+    void testLimits(long time, long increment, int movesToGo, long soft, long hard) {
+        assertEquals(soft, TimeManager.softLimit(time, increment, movesToGo));
+        assertEquals(hard, TimeManager.hardLimit(time, increment, movesToGo));
+
+        SearchLimits limits = SearchLimits.clock(time, increment, movesToGo);
+        assertTrue(limits.isClock());
+        assertEquals(soft, limits.softMillis);
+        assertEquals(hard, limits.millis);
+    }
+
+    @Test
+    void testNoClock() {
+        assertFalse(SearchLimits.time(1000).isClock());
+        assertThrows(IllegalArgumentException.class, () -> new TimeManager(SearchLimits.time(1000)));
+    }
+
+    @Test
+    void testStableMove() {
+        TimeManager timeManager = new TimeManager(SearchLimits.clock(60000, 0, 0));
+        assertFalse(timeManager.isSoftLimitReached(info(1, 0, 0), 100 * MILLIS));
+        assertFalse(timeManager.isSoftLimitReached(info(2, 0, 0), 1000 * MILLIS));
+        assertTrue(timeManager.isSoftLimitReached(info(3, 0, 0), 2000 * MILLIS));
+    }
+
+    @Test
+    void testUnstableMove() {
+        TimeManager timeManager = new TimeManager(SearchLimits.clock(60000, 0, 0));
+        assertFalse(timeManager.isSoftLimitReached(info(1, 0, 0), 100 * MILLIS));
+        assertFalse(timeManager.isSoftLimitReached(info(2, 1, 0), 2000 * MILLIS));
+        assertFalse(timeManager.isSoftLimitReached(info(3, 1, 0), 2500 * MILLIS));
+        assertTrue(timeManager.isSoftLimitReached(info(4, 1, 0), 3500 * MILLIS));
+    }
+
+    @Test
+    void testScoreDrop() {
+        TimeManager timeManager = new TimeManager(SearchLimits.clock(60000, 0, 0));
+        assertFalse(timeManager.isSoftLimitReached(info(1, 0, 50), 100 * MILLIS));
+        assertFalse(timeManager.isSoftLimitReached(info(2, 0, 0), 2000 * MILLIS));
+        assertTrue(timeManager.isSoftLimitReached(info(3, 0, 0), 2000 * MILLIS));
+    }
+
+    @Test
+    void testPondering() {
+        // the stability is followed while pondering, but the time does not run
+        TimeManager timeManager = new TimeManager(SearchLimits.clock(60000, 0, 0));
+        assertFalse(timeManager.isSoftLimitReached(info(1, 0, 0), 0));
+        assertFalse(timeManager.isSoftLimitReached(info(2, 1, 0), 0));
+        assertFalse(timeManager.isSoftLimitReached(info(3, 1, 0), 2500 * MILLIS));
+    }
+
+    @Test
+    void testHardLimit() {
+        TimeManager timeManager = new TimeManager(SearchLimits.clock(10000, 0, 1));
+        assertFalse(timeManager.isSoftLimitReached(info(1, 0, 0), 100 * MILLIS));
+        assertTrue(timeManager.isSoftLimitReached(info(2, 1, -100), 9950 * MILLIS));
+    }
+
+    private static SearchInfo info(int depth, int moveIndex, int score) {
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(FEN.createBoard(FEN.INITIAL), moves);
+        return new SearchInfo(depth, score, 1000, 0, new int[]{moves.get(moveIndex)}, 0, 0);
+    }
+}
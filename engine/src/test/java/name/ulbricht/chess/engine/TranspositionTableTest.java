@@ -0,0 +1,99 @@
+package name.ulbricht.chess.engine;
+
+import name.ulbricht.chess.game.FEN;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TranspositionTableTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "1\t0\t0\t1\t1",
+            "-1\t12345\t-250\t7\t2",
+            "0x123456789ABCDEF0\t67108863\t31999\t255\t3",
+            "0x7FFFFFFFFFFFFFFF\t1\t-32001\t64\t1"})
+    void testStoreProbe(String key, int move, int score, int depth, int bound) {
+        long positionKey = Long.decode(key);
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(positionKey, move, score, depth, bound);
+
+        long entry = table.probe(positionKey);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(score, TranspositionTable.score(entry));
+        assertEquals(depth, TranspositionTable.depth(entry));
+        assertEquals(bound, TranspositionTable.bound(entry));
+
+        assertEquals(TranspositionTable.NONE, table.probe(positionKey + 1));
+    }
+
+    @Test
+    void testReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        // the keys differ in the lower bits only, so they share a bucket
+        long deep = 0x1234567800000001L;
+        long shallow = 0x1234567800000002L;
+        long other = 0x1234567800000003L;
+
+        table.store(deep, 1, 0, 8, TranspositionTable.EXACT);
+        table.store(shallow, 2, 0, 2, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(deep)));
+        assertEquals(2, TranspositionTable.move(table.probe(shallow)));
+
+        // the always-replace entry takes the latest result, the deep result is kept
+        table.store(other, 3, 0, 3, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(deep)));
+        assertEquals(TranspositionTable.NONE, table.probe(shallow));
+        assertEquals(3, TranspositionTable.move(table.probe(other)));
+
+        // the result of an older search is replaced regardless of its depth
+        table.newSearch();
+        table.store(shallow, 4, 0, 1, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.NONE, table.probe(deep));
+        assertEquals(4, TranspositionTable.move(table.probe(shallow)));
+    }
+
+    @Test
+    void testStatistics() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.getHashfull());
+        assertEquals(0, table.getHitRate());
+
+        for (long bucket = 0; bucket < 250; bucket++) {
+            table.store(bucket << 32, 1, 0, 1, TranspositionTable.EXACT);
+        }
+        assertEquals(250, table.getHashfull());
+
+        table.probe(1L << 32);
+        table.probe(-1L);
+        assertEquals(0.5, table.getHitRate());
+
+        table.newSearch();
+        assertEquals(0, table.getHashfull());
+
+        table.clear();
+        assertEquals(TranspositionTable.NONE, table.probe(1L << 32));
+        assertEquals(0, table.getHitRate());
+    }
+
+    @Test
+    void testReuse() {
+        TranspositionTable table = new TranspositionTable(1);
+        SearchInfo first = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.depth(4), table, info -> {
+        }).search();
+        SearchInfo second = new Search(FEN.createBoard(FEN.INITIAL), SearchLimits.depth(4), table, info -> {
+        }).search();
+
+        assertTrue(second.nodes < first.nodes, first + " / " + second);
+        assertTrue(first.hashfull > 0, first.toString());
+    }
+
+    @Test
+    void testIllegalSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+}
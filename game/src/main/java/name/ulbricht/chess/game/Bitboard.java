@@ -0,0 +1,175 @@
+package name.ulbricht.chess.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper methods for bitboards. A bitboard is a {@code long} value where each bit represents one square of the board.
+ * The bit index is the ordinal value of the coordinate, so bit 0 represents a1 and bit 63 represents h8. All attack
+ * sets are calculated by shifting and masking whole bitboards instead of walking the board square by square.
+ */
+final class Bitboard {
+
+    static final long EMPTY = 0L;
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_B = FILE_A << 1;
+    static final long FILE_G = FILE_A << 6;
+    static final long FILE_H = FILE_A << 7;
+
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_2 = RANK_1 << 8;
+    static final long RANK_3 = RANK_1 << 16;
+    static final long RANK_6 = RANK_1 << 40;
+    static final long RANK_7 = RANK_1 << 48;
+    static final long RANK_8 = RANK_1 << 56;
+
+    static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    static final long DARK_SQUARES = ~LIGHT_SQUARES;
+
+    private static final long NOT_FILE_A = ~FILE_A;
+    private static final long NOT_FILE_AB = ~(FILE_A | FILE_B);
+    private static final long NOT_FILE_H = ~FILE_H;
+    private static final long NOT_FILE_GH = ~(FILE_G | FILE_H);
+
+    private static final MoveDirection[] moveDirections = MoveDirection.values();
+    private static final int[] shiftAmounts = new int[moveDirections.length];
+    private static final long[] wrapMasks = new long[moveDirections.length];
+
+    static {
+        for (MoveDirection direction : moveDirections) {
+            // a shift to the right is a rotation to the left by the complement
+            shiftAmounts[direction.ordinal()] = (direction.row() * Coordinate.COLUMNS + direction.column()) & 63;
+
+            // the bits wrapping around the board are removed after rotating
+            long mask = ~EMPTY;
+            if (direction.column() > 0) mask &= NOT_FILE_A;
+            if (direction.column() < 0) mask &= NOT_FILE_H;
+            if (direction.row() > 0) mask &= ~RANK_1;
+            if (direction.row() < 0) mask &= ~RANK_8;
+            wrapMasks[direction.ordinal()] = mask;
+        }
+    }
+
+    /**
+     * Returns a bitboard with only the bit of the given coordinate set.
+     *
+     * @param coordinate the coordinate
+     * @return the bitboard
+     */
+    static long of(Coordinate coordinate) {
+        return 1L << coordinate.ordinal();
+    }
+
+    /**
+     * Returns {@code true} if the bit of the given coordinate is set in the bitboard.
+     *
+     * @param bitboard   the bitboard
+     * @param coordinate the coordinate
+     * @return {@code true} if the bit is set
+     */
+    static boolean contains(long bitboard, Coordinate coordinate) {
+        return (bitboard & of(coordinate)) != 0;
+    }
+
+    /**
+     * Returns the coordinate of the lowest bit set in the bitboard. The bitboard must not be empty.
+     *
+     * @param bitboard a non-empty bitboard
+     * @return the coordinate of the lowest bit
+     */
+    static Coordinate first(long bitboard) {
+        return Coordinate.valueOf(Long.numberOfTrailingZeros(bitboard));
+    }
+
+    /**
+     * Converts the bitboard into a list of coordinates in ascending order.
+     *
+     * @param bitboard the bitboard
+     * @return a list of coordinates
+     */
+    static List<Coordinate> toList(long bitboard) {
+        List<Coordinate> coordinates = new ArrayList<>(Long.bitCount(bitboard));
+        while (bitboard != 0) {
+            coordinates.add(first(bitboard));
+            bitboard &= bitboard - 1;
+        }
+        return coordinates;
+    }
+
+    /**
+     * Moves all bits one step into the given direction. Bits leaving the board are dropped.
+     *
+     * @param bitboard  the bitboard
+     * @param direction the direction
+     * @return the shifted bitboard
+     */
+    static long shift(long bitboard, MoveDirection direction) {
+        return Long.rotateLeft(bitboard, shiftAmounts[direction.ordinal()]) & wrapMasks[direction.ordinal()];
+    }
+
+    /**
+     * Calculates all squares attacked by sliding pieces into one direction. The squares are filled in parallel for all
+     * pieces (Kogge-Stone), an attack ends at the first occupied square, which is included.
+     *
+     * @param sliders   the bitboard of the sliding pieces
+     * @param empty     the bitboard of all empty squares
+     * @param direction the direction
+     * @return the attacked squares
+     */
+    static long slide(long sliders, long empty, MoveDirection direction) {
+        int amount = shiftAmounts[direction.ordinal()];
+        long mask = wrapMasks[direction.ordinal()];
+
+        long generator = sliders;
+        long propagator = empty & mask;
+        generator |= propagator & Long.rotateLeft(generator, amount);
+        propagator &= Long.rotateLeft(propagator, amount);
+        generator |= propagator & Long.rotateLeft(generator, 2 * amount);
+        propagator &= Long.rotateLeft(propagator, 2 * amount);
+        generator |= propagator & Long.rotateLeft(generator, 4 * amount);
+
+        return Long.rotateLeft(generator, amount) & mask;
+    }
+
+    static long rookAttacks(long rooks, long occupied) {
+        long empty = ~occupied;
+        return slide(rooks, empty, MoveDirection.UP)
+                | slide(rooks, empty, MoveDirection.RIGHT)
+                | slide(rooks, empty, MoveDirection.DOWN)
+                | slide(rooks, empty, MoveDirection.LEFT);
+    }
+
+    static long bishopAttacks(long bishops, long occupied) {
+        long empty = ~occupied;
+        return slide(bishops, empty, MoveDirection.UP_RIGHT)
+                | slide(bishops, empty, MoveDirection.DOWN_RIGHT)
+                | slide(bishops, empty, MoveDirection.DOWN_LEFT)
+                | slide(bishops, empty, MoveDirection.UP_LEFT);
+    }
+
+    static long knightAttacks(long knights) {
+        return ((knights << 17) & NOT_FILE_A)
+                | ((knights << 10) & NOT_FILE_AB)
+                | ((knights >>> 6) & NOT_FILE_AB)
+                | ((knights >>> 15) & NOT_FILE_A)
+                | ((knights << 15) & NOT_FILE_H)
+                | ((knights << 6) & NOT_FILE_GH)
+                | ((knights >>> 10) & NOT_FILE_GH)
+                | ((knights >>> 17) & NOT_FILE_H);
+    }
+
+    static long kingAttacks(long kings) {
+        long attacks = shift(kings, MoveDirection.LEFT) | shift(kings, MoveDirection.RIGHT);
+        kings |= attacks;
+        return attacks | shift(kings, MoveDirection.UP) | shift(kings, MoveDirection.DOWN);
+    }
+
+    static long pawnAttacks(long pawns, Player player) {
+        return shift(pawns, MoveDirection.forwardLeft(player)) | shift(pawns, MoveDirection.forwardRight(player));
+    }
+
+    private Bitboard() {
+        // hidden
+    }
+}
@@ -1,5 +1,6 @@
 package name.ulbricht.chess.game;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public final class Board implements Cloneable {
@@ -8,7 +9,17 @@ public final class Board implements Cloneable {
         return FEN.createBoard(FEN.INITIAL);
     }
 
+    /**
+     * The phase of the game with all pieces on the board.
+     */
+    public static final int MAX_PHASE = PieceSquareTables.MAX_PHASE;
+
+    private static final Piece[] allPieces = Piece.values();
+
     private Piece[] pieces = new Piece[Coordinate.COLUMNS * Coordinate.ROWS];
+    private long[] bitboards = new long[allPieces.length];
+    private long[] occupancies = new long[Player.values().length];
+    private int[] kingSquares = {Squares.NONE, Squares.NONE};
     private Player activePlayer = Player.WHITE;
     private boolean whiteKingSideCastlingAvailable = true;
     private boolean whiteQueenSideCastlingAvailable = true;
@@ -17,28 +28,281 @@ public final class Board implements Cloneable {
     private Coordinate enPassantTarget;
     private int halfMoveClock = 0;
     private int fullMoveNumber = 1;
+    private long[] states = new long[16];
+    private long[] stateKeys = new long[16];
+    private int stateCount;
+    // the key without the en-passant target, whose key depends on the pawns of the active player
+    private long key = Zobrist.key(this);
+    private long pawnKey;
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
 
     Piece getPiece(Coordinate coordinate) {
         return this.pieces[Objects.requireNonNull(coordinate, "coordinate cannot be null").ordinal()];
     }
 
+    /**
+     * Returns the piece on the square with the given index.
+     *
+     * @param square the index of the square
+     * @return the piece or {@code null} if the square is empty
+     */
+    public Piece getPiece(int square) {
+        return this.pieces[square];
+    }
+
     boolean isEmpty(Coordinate coordinate) {
         return getPiece(coordinate) == null;
     }
 
     void setPiece(Coordinate coordinate, Piece piece) {
-        this.pieces[Objects.requireNonNull(coordinate, "coordinate cannot be null").ordinal()] = piece;
+        setPiece(Objects.requireNonNull(coordinate, "coordinate cannot be null").ordinal(), piece);
+    }
+
+    void setPiece(int index, Piece piece) {
+        long bit = 1L << index;
+
+        Piece oldPiece = this.pieces[index];
+        if (oldPiece != null) {
+            this.bitboards[oldPiece.ordinal()] &= ~bit;
+            this.occupancies[oldPiece.player.ordinal()] &= ~bit;
+            if (oldPiece.type == PieceType.KING && this.kingSquares[oldPiece.player.ordinal()] == index)
+                this.kingSquares[oldPiece.player.ordinal()] = Squares.NONE;
+            this.key ^= Zobrist.piece(oldPiece, index);
+            if (oldPiece.type == PieceType.PAWN) this.pawnKey ^= Zobrist.piece(oldPiece, index);
+            this.middlegameScore -= PieceSquareTables.middlegame(oldPiece, index);
+            this.endgameScore -= PieceSquareTables.endgame(oldPiece, index);
+            this.phase -= PieceSquareTables.phase(oldPiece);
+        }
+
+        this.pieces[index] = piece;
+        if (piece != null) {
+            this.bitboards[piece.ordinal()] |= bit;
+            this.occupancies[piece.player.ordinal()] |= bit;
+            if (piece.type == PieceType.KING) this.kingSquares[piece.player.ordinal()] = index;
+            this.key ^= Zobrist.piece(piece, index);
+            if (piece.type == PieceType.PAWN) this.pawnKey ^= Zobrist.piece(piece, index);
+            this.middlegameScore += PieceSquareTables.middlegame(piece, index);
+            this.endgameScore += PieceSquareTables.endgame(piece, index);
+            this.phase += PieceSquareTables.phase(piece);
+        }
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by the given piece.
+     *
+     * @param piece the piece
+     * @return the bitboard
+     */
+    public long pieces(Piece piece) {
+        return this.bitboards[piece.ordinal()];
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by pieces of the given player.
+     *
+     * @param player the player
+     * @return the bitboard
+     */
+    public long occupancy(Player player) {
+        return this.occupancies[player.ordinal()];
+    }
+
+    /**
+     * Returns the bitboard of all occupied squares.
+     *
+     * @return the bitboard
+     */
+    public long occupancy() {
+        return this.occupancies[0] | this.occupancies[1];
     }
 
     Coordinate king(Player player) {
-        return findFirst(Piece.valueOf(PieceType.KING, Objects.requireNonNull(player, "player cannot be null")));
+        int square = kingSquare(Objects.requireNonNull(player, "player cannot be null"));
+        return square != Squares.NONE ? Coordinate.valueOf(square) : null;
+    }
+
+    /**
+     * Returns the square of the king of the given player. The square is tracked when pieces are set, so no search is
+     * needed.
+     *
+     * @param player the player
+     * @return the index of the square or {@code -1} if there is no king
+     */
+    public int kingSquare(Player player) {
+        return this.kingSquares[player.ordinal()];
+    }
+
+    /**
+     * Performs the ply in place.
+     *
+     * @param ply the ply to perform
+     * @see #make(int)
+     */
+    void make(Ply ply) {
+        make(Move.of(ply));
+    }
+
+    /**
+     * Takes back the ply that was performed last.
+     *
+     * @param ply the ply to take back
+     * @see #unmake(int)
+     */
+    void unmake(Ply ply) {
+        unmake(Move.of(ply));
+    }
+
+    /**
+     * Performs the encoded move in place. The state of the board that cannot be restored from the move itself is saved
+     * as a small record, so the move can be taken back by {@link #unmake(int)} without copying the board.
+     *
+     * @param move the encoded move to perform
+     */
+    public void make(int move) {
+        pushState();
+        Rules.performPly(this, move);
+    }
+
+    /**
+     * Takes back the encoded move that was performed last by {@link #make(int)}.
+     *
+     * @param move the encoded move to take back
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmake(int move) {
+        if (this.stateCount == 0) throw new IllegalStateException("No ply to unmake");
+        Rules.undoPly(this, move);
+        restoreState(this.states[--this.stateCount]);
+        this.key = this.stateKeys[this.stateCount] ^ Zobrist.enPassant(this);
+    }
+
+    /**
+     * Passes the right to move to the opponent without moving a piece. This is not a legal move, a search uses it to
+     * check if the position is so good that even passing keeps it above the bound. The half-move clock is reset, so
+     * the positions before the null move are not counted as repetitions.
+     *
+     * @throws IllegalStateException if the active player is in check
+     */
+    public void makeNullMove() {
+        if (Rules.isInCheck(this, this.activePlayer)) throw new IllegalStateException("Null move in check");
+        pushState();
+        setEnPassantTarget(null);
+        this.halfMoveClock = 0;
+        setActivePlayer(this.activePlayer.opponent());
+    }
+
+    /**
+     * Takes back the null move that was performed last by {@link #makeNullMove()}.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeNullMove() {
+        if (this.stateCount == 0) throw new IllegalStateException("No ply to unmake");
+        this.activePlayer = this.activePlayer.opponent();
+        restoreState(this.states[--this.stateCount]);
+        this.key = this.stateKeys[this.stateCount] ^ Zobrist.enPassant(this);
+    }
+
+    /**
+     * Returns the Zobrist key of the position. The key covers the pieces, the active player, the castling
+     * availability and the column of the en-passant target, if a pawn of the active player can capture on it. It is
+     * updated incrementally with every change of the board.
+     *
+     * @return the key of the position
+     */
+    public long getPositionKey() {
+        return this.key ^ Zobrist.enPassant(this);
+    }
+
+    /**
+     * Returns the Zobrist key of the pawns. The key covers only the pawns of both players, so it changes rarely and
+     * can be used to cache an evaluation of the pawn structure. It is updated incrementally with every change of the
+     * board.
+     *
+     * @return the key of the pawns, {@code 0} if there are no pawns
+     */
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    /**
+     * Returns the score of the pieces and their squares for the middlegame, from the view of White. The score is
+     * updated incrementally whenever a piece is set.
+     *
+     * @return the score in centipawns
+     */
+    public int getMiddlegameScore() {
+        return this.middlegameScore;
     }
 
-    private Coordinate findFirst(Piece piece) {
-        for (Coordinate coordinate : Coordinate.values()) {
-            if (getPiece(coordinate) == piece) return coordinate;
+    /**
+     * Returns the score of the pieces and their squares for the endgame, from the view of White. The score is updated
+     * incrementally whenever a piece is set.
+     *
+     * @return the score in centipawns
+     */
+    public int getEndgameScore() {
+        return this.endgameScore;
+    }
+
+    /**
+     * Returns the phase of the game by the pieces on the board, from {@link #MAX_PHASE} in the opening to {@code 0}
+     * with only kings and pawns. An evaluation blends the middlegame score and the endgame score by the phase.
+     *
+     * @return the phase
+     */
+    public int getPhase() {
+        return Math.min(this.phase, MAX_PHASE);
+    }
+
+    /**
+     * Counts how often the current position occurred before. Only the positions since the last pawn move or capture
+     * are compared, because no earlier position can be repeated. These are at most as many as the half-move clock.
+     *
+     * @return the number of earlier occurrences of the position
+     */
+    public int repetitions() {
+        long key = getPositionKey();
+        int repetitions = 0;
+        int first = Math.max(0, this.stateCount - this.halfMoveClock);
+        for (int i = this.stateCount - 2; i >= first; i -= 2) {
+            if (this.stateKeys[i] == key) repetitions++;
         }
-        return null;
+        return repetitions;
+    }
+
+    private void pushState() {
+        if (this.stateCount == this.states.length) {
+            this.states = Arrays.copyOf(this.states, 2 * this.stateCount);
+            this.stateKeys = Arrays.copyOf(this.stateKeys, 2 * this.stateCount);
+        }
+        this.stateKeys[this.stateCount] = getPositionKey();
+        this.states[this.stateCount++] = saveState();
+    }
+
+    private long saveState() {
+        long state = 0;
+        if (this.whiteKingSideCastlingAvailable) state |= 1;
+        if (this.whiteQueenSideCastlingAvailable) state |= 2;
+        if (this.blackKingSideCastlingAvailable) state |= 4;
+        if (this.blackQueenSideCastlingAvailable) state |= 8;
+        if (this.enPassantTarget != null) state |= (this.enPassantTarget.ordinal() + 1) << 4;
+        state |= (long) (this.halfMoveClock & 0xFFFF) << 11;
+        state |= (long) (this.fullMoveNumber & 0xFFFF) << 27;
+        return state;
+    }
+
+    private void restoreState(long state) {
+        this.whiteKingSideCastlingAvailable = (state & 1) != 0;
+        this.whiteQueenSideCastlingAvailable = (state & 2) != 0;
+        this.blackKingSideCastlingAvailable = (state & 4) != 0;
+        this.blackQueenSideCastlingAvailable = (state & 8) != 0;
+        int enPassantIndex = (int) ((state >>> 4) & 0x7F);
+        this.enPassantTarget = enPassantIndex != 0 ? Coordinate.valueOf(enPassantIndex - 1) : null;
+        this.halfMoveClock = (int) ((state >>> 11) & 0xFFFF);
+        this.fullMoveNumber = (int) ((state >>> 27) & 0xFFFF);
     }
 
     public Player getActivePlayer() {
@@ -46,7 +310,8 @@ public final class Board implements Cloneable {
     }
 
     public void setActivePlayer(Player activePlayer) {
-        this.activePlayer = Objects.requireNonNull(activePlayer);
+        this.key ^= Zobrist.player(this.activePlayer) ^ Zobrist.player(Objects.requireNonNull(activePlayer));
+        this.activePlayer = activePlayer;
     }
 
     public boolean isWhiteKingSideCastlingAvailable() {
@@ -54,6 +319,7 @@ public final class Board implements Cloneable {
     }
 
     public void setWhiteKingSideCastlingAvailable(boolean whiteKingSideCastlingAvailable) {
+        if (this.whiteKingSideCastlingAvailable != whiteKingSideCastlingAvailable) this.key ^= Zobrist.castling(Zobrist.WHITE_KING_SIDE_CASTLING);
         this.whiteKingSideCastlingAvailable = whiteKingSideCastlingAvailable;
     }
 
@@ -62,6 +328,7 @@ public final class Board implements Cloneable {
     }
 
     public void setWhiteQueenSideCastlingAvailable(boolean whiteQueenSideCastlingAvailable) {
+        if (this.whiteQueenSideCastlingAvailable != whiteQueenSideCastlingAvailable) this.key ^= Zobrist.castling(Zobrist.WHITE_QUEEN_SIDE_CASTLING);
         this.whiteQueenSideCastlingAvailable = whiteQueenSideCastlingAvailable;
     }
 
@@ -70,6 +337,7 @@ public final class Board implements Cloneable {
     }
 
     public void setBlackKingSideCastlingAvailable(boolean blackKingSideCastlingAvailable) {
+        if (this.blackKingSideCastlingAvailable != blackKingSideCastlingAvailable) this.key ^= Zobrist.castling(Zobrist.BLACK_KING_SIDE_CASTLING);
         this.blackKingSideCastlingAvailable = blackKingSideCastlingAvailable;
     }
 
@@ -78,6 +346,7 @@ public final class Board implements Cloneable {
     }
 
     public void setBlackQueenSideCastlingAvailable(boolean blackQueenSideCastlingAvailable) {
+        if (this.blackQueenSideCastlingAvailable != blackQueenSideCastlingAvailable) this.key ^= Zobrist.castling(Zobrist.BLACK_QUEEN_SIDE_CASTLING);
         this.blackQueenSideCastlingAvailable = blackQueenSideCastlingAvailable;
     }
 
@@ -105,17 +374,79 @@ public final class Board implements Cloneable {
         this.fullMoveNumber = fullMoveNumber;
     }
 
+    /**
+     * Returns a copy of the position without the states of the performed moves. The copy cannot take back the moves
+     * performed before, so it only takes the memory of the position itself.
+     *
+     * @return the copy of the position
+     */
+    Board copyPosition() {
+        Board copy = clone();
+        copy.states = new long[16];
+        copy.stateKeys = new long[16];
+        copy.stateCount = 0;
+        return copy;
+    }
+
+    /**
+     * Returns the number of moves that can be taken back.
+     *
+     * @return the number of moves
+     */
+    int getHistorySize() {
+        return this.stateCount;
+    }
+
     @Override
-    protected Board clone() {
+    public Board clone() {
         try {
             Board copy = (Board) super.clone();
             copy.pieces = this.pieces.clone();
+            copy.bitboards = this.bitboards.clone();
+            copy.occupancies = this.occupancies.clone();
+            copy.kingSquares = this.kingSquares.clone();
+            copy.states = this.states.clone();
+            copy.stateKeys = this.stateKeys.clone();
             return copy;
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
     }
 
+    /**
+     * Returns a hash code based on the key of the position.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getPositionKey());
+    }
+
+    /**
+     * Compares two boards by their positions. Two boards are equal if they have the same pieces on the same squares,
+     * the same active player, the same castling availability and the same en-passant target. The clocks are not
+     * compared.
+     *
+     * @param obj the other object
+     * @return {@code true} if the other object is a board with the same position
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || this.getClass() != obj.getClass()) return false;
+        Board other = (Board) obj;
+
+        return this.key == other.key
+                && Arrays.equals(this.pieces, other.pieces)
+                && this.activePlayer == other.activePlayer
+                && this.whiteKingSideCastlingAvailable == other.whiteKingSideCastlingAvailable
+                && this.whiteQueenSideCastlingAvailable == other.whiteQueenSideCastlingAvailable
+                && this.blackKingSideCastlingAvailable == other.blackKingSideCastlingAvailable
+                && this.blackQueenSideCastlingAvailable == other.blackQueenSideCastlingAvailable
+                && this.enPassantTarget == other.enPassantTarget;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("{pieces=");
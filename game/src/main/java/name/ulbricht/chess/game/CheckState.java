@@ -2,7 +2,7 @@ package name.ulbricht.chess.game;
 
 public enum CheckState {
 
-    NONE, CHECK, CHECKMATE;
+    NONE, CHECK, CHECKMATE, STALEMATE;
 
     public String getDisplayName() {
         return Messages.getString(getClass().getSimpleName() + '.' + name() + ".displayName");
@@ -39,7 +39,13 @@ public enum Coordinate {
      */
     public static final int ROWS = 8;
 
+    private static final Coordinate[] values = values();
+
     public Coordinate go(Direction direction) {
+        if (direction instanceof MoveDirection) {
+            int square = Squares.neighbour(ordinal(), (MoveDirection) direction);
+            return square != Squares.NONE ? values[square] : null;
+        }
         return go(direction, 1);
     }
 
@@ -85,14 +91,15 @@ public enum Coordinate {
     }
 
     /**
-     * Returns thecoordinate object for the given index.
+     * Returns the cached coordinate object for the given index.
      *
      * @param index the index
      * @return a coordinate object
      * @throws IndexOutOfBoundsException if the index exceeds the lower or upper limit.
      */
     public static Coordinate valueOf(int index) throws IndexOutOfBoundsException {
-        return values()[index];
+        if (index < 0 || index >= values.length) throw new IndexOutOfBoundsException(Integer.toString(index));
+        return values[index];
     }
 
     /**
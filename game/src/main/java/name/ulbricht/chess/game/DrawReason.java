@@ -0,0 +1,13 @@
+package name.ulbricht.chess.game;
+
+/**
+ * The reasons for a game to end in a draw.
+ */
+public enum DrawReason {
+
+    STALEMATE, THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL;
+
+    public String getDisplayName() {
+        return Messages.getString(getClass().getSimpleName() + '.' + name() + ".displayName");
+    }
+}
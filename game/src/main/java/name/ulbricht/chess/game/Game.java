@@ -9,21 +9,25 @@ import java.util.stream.Collectors;
 public final class Game {
 
     private Board board;
+
+    // both are calculated on demand for the current position, null if not yet known
     private CheckState checkState;
-    private final List<Ply> validPlies = new ArrayList<>();
+    private List<Ply> validPlies;
+
+    /**
+     * Number of plies between two checkpoints.
+     */
+    private static final int CHECKPOINT_INTERVAL = 16;
 
-    private static class HistoryItem {
-        final Board board;
-        final Ply ply;
+    // the moves of the game, the moves after the ply index were undone and can be redone
+    private final MoveList moves = new MoveList();
+    private int plyIndex;
 
-        private HistoryItem(Board board, Ply ply) {
-            this.board = Objects.requireNonNull(board, "board cannot be null");
-            this.ply = Objects.requireNonNull(ply, "ply cannot be null");
-        }
-    }
+    // copies of the position at every checkpoint interval, without the states of the moves before
+    private final List<Board> checkpoints = new ArrayList<>();
 
-    private Stack<HistoryItem> history = new Stack<>();
-    private Stack<HistoryItem> redo = new Stack<>();
+    // used to generate the moves of a single piece, so checking a ply does not allocate
+    private final MoveList buffer = new MoveList();
 
     /**
      * Creates a new game. This game will have a new board with the initial positions of the pieces.
@@ -39,7 +43,7 @@ public final class Game {
         // TODO we should check if there is a king for each side
         // TODO check if the en-passant target is correct
         this.board = board.clone();
-        updateValidPlies();
+        this.checkpoints.add(board.copyPosition());
     }
 
     public Board getBoard() {
@@ -55,7 +59,23 @@ public final class Game {
         return this.board.getActivePlayer();
     }
 
+    /**
+     * Returns the Zobrist key of the current position.
+     *
+     * @return the key of the position
+     * @see Board#getPositionKey()
+     */
+    public long getPositionKey() {
+        return this.board.getPositionKey();
+    }
+
+    /**
+     * Returns the check state of the current position. It is calculated when it is requested for the first time.
+     *
+     * @return the check state
+     */
     public CheckState getCheckState() {
+        if (this.checkState == null) updateCheckState();
         return this.checkState;
     }
 
@@ -69,16 +89,9 @@ public final class Game {
         return this.board.getPiece(coordinate);
     }
 
-    public List<Ply> getValidPlies() {
-        return Collections.unmodifiableList(this.validPlies);
-    }
-
-    public List<Ply> getValidPlies(Coordinate source) {
-        return this.validPlies.stream().filter(m -> m.source == source).collect(Collectors.toList());
-    }
-
     /**
-     * Updates the list of valid ply (half move).
+     * Returns the valid plies (half moves) of the current position. They are calculated when they are requested for the
+     * first time.
      * <p>
      * A ply is valid if:
      * <ol>
@@ -86,88 +99,98 @@ public final class Game {
      * fields (e.g. for castling).</li>
      * <li>the king of the active player is not in check after the move</li>
      * </ol>
+     * The plies are generated by the {@link MoveGenerator} that decides both conditions without performing the plies.
+     *
+     * @return the valid plies
      */
-    private void updateValidPlies() {
-        this.checkState = CheckState.NONE;
-        this.validPlies.clear();
-
-        // find the squares attacked by the opponent
-        List<Coordinate> attacked = Rules.attacks(this.board, this.board.getActivePlayer().opponent());
-
-        // check if the king is in check
-        Coordinate kingPosition = this.board.king(this.board.getActivePlayer());
-        if (attacked.contains(kingPosition)) this.checkState = CheckState.CHECK;
-
-        // find legal plies
-        List<Ply> plies = new ArrayList<>();
-        for (Coordinate source : Coordinate.values()) {
-            Piece piece = getPiece(source);
-            if (piece != null && piece.player == this.board.getActivePlayer()) {
-                switch (piece.type) {
-                    case QUEEN:
-                        plies.addAll(Rules.plies(this.board, source, Integer.MAX_VALUE, MoveDirection.values()));
-                        break;
-                    case KING:
-                        plies.addAll(Rules.plies(this.board, source, 1, MoveDirection.values()));
-                        if (source == Rules.initialKingCoordinate(piece.player)) {
-                            if (piece.player == Player.WHITE) {
-                                if (this.board.isWhiteKingSideCastlingAvailable()) {
-                                    Ply ply = Rules.kingSideCastlingPly(this.board, source, attacked);
-                                    if (ply != null) plies.add(ply);
-                                }
-                                if (this.board.isWhiteQueenSideCastlingAvailable()) {
-                                    Ply ply = Rules.queenSideCastlingPly(this.board, source, attacked);
-                                    if (ply != null) plies.add(ply);
-                                }
-                            } else {
-                                if (this.board.isBlackKingSideCastlingAvailable()) {
-                                    Ply ply = Rules.kingSideCastlingPly(this.board, source, attacked);
-                                    if (ply != null) plies.add(ply);
-                                }
-                                if (this.board.isBlackQueenSideCastlingAvailable()) {
-                                    Ply ply = Rules.queenSideCastlingPly(this.board, source, attacked);
-                                    if (ply != null) plies.add(ply);
-                                }
-                            }
-                        }
-                        break;
-                    case ROOK:
-                        plies.addAll(Rules.plies(this.board, source, Integer.MAX_VALUE,
-                                MoveDirection.UP, MoveDirection.RIGHT, MoveDirection.DOWN, MoveDirection.LEFT));
-                        break;
-                    case BISHOP:
-                        plies.addAll(Rules.plies(this.board, source, Integer.MAX_VALUE,
-                                MoveDirection.UP_LEFT, MoveDirection.UP_RIGHT, MoveDirection.DOWN_RIGHT, MoveDirection.DOWN_LEFT));
-                        break;
-                    case KNIGHT:
-                        plies.addAll(Rules.plies(this.board, source, 1, KnightJump.values()));
-                        break;
-                    case PAWN:
-                        plies.addAll(Rules.pawnPlies(this.board, source, this.board.getEnPassantTarget()));
-                        break;
-                }
-            }
-        }
+    public List<Ply> getValidPlies() {
+        if (this.validPlies == null) this.validPlies = Collections.unmodifiableList(MoveGenerator.legalPlies(this.board));
+        return this.validPlies;
+    }
 
-        // simulate all plies to verify that there is no check after the move
-        for (Ply ply : plies) {
+    /**
+     * Returns the valid plies of the piece at the given coordinate. If the plies of the current position are not known
+     * yet, only the plies of that piece are calculated.
+     *
+     * @param source the coordinate of the piece
+     * @return the valid plies of the piece
+     */
+    public List<Ply> getValidPlies(Coordinate source) {
+        if (this.validPlies == null) return MoveGenerator.legalPlies(this.board, Bitboard.of(source));
+        return this.validPlies.stream().filter(m -> m.source == source).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the valid plies of the pieces of the given piece and color. If the plies of the current position are not
+     * known yet, only the plies of these pieces are calculated.
+     *
+     * @param piece the piece
+     * @return the valid plies of the pieces
+     */
+    List<Ply> getValidPlies(Piece piece) {
+        if (this.validPlies == null) return MoveGenerator.legalPlies(this.board, this.board.pieces(piece));
+        return this.validPlies.stream().filter(m -> m.piece == piece).collect(Collectors.toList());
+    }
 
-            // perform the ply on a temporary board
-            Board simBoard = this.board.clone();
-            Rules.performPly(simBoard, ply);
+    /**
+     * Checks if the ply is valid in the current position. If the plies of the current position are not known yet, only
+     * the plies of the moving piece are calculated.
+     *
+     * @param ply the ply
+     * @return {@code true} if the ply is valid
+     */
+    public boolean isLegal(Ply ply) {
+        Objects.requireNonNull(ply, "ply cannot be null");
+        if (this.validPlies != null) return this.validPlies.contains(ply);
+        return MoveGenerator.isLegal(this.board, Move.of(ply), this.buffer);
+    }
 
-            // find the king of this player (may have moved) for check test
-            kingPosition = simBoard.king(this.board.getActivePlayer());
+    /**
+     * Updates the check state of the current position. If there is no valid ply, the game is over.
+     */
+    private void updateCheckState() {
+        boolean check = Rules.isInCheck(this.board, this.board.getActivePlayer());
 
-            // check if the king is in check after this move
-            List<Coordinate> simAttacked = Rules.attacks(simBoard, this.board.getActivePlayer().opponent());
-            if (!simAttacked.contains(kingPosition)) {
-                this.validPlies.add(ply);
-            }
+        // without a valid ply it is checkmate if the king is in check, otherwise stalemate
+        boolean validPly = this.validPlies != null ? !this.validPlies.isEmpty() : MoveGenerator.hasLegalMove(this.board, this.buffer);
+        if (!validPly) this.checkState = check ? CheckState.CHECKMATE : CheckState.STALEMATE;
+        else this.checkState = check ? CheckState.CHECK : CheckState.NONE;
+    }
+
+    /**
+     * Returns the reason why the current position is a draw. A checkmate takes precedence over the fifty-move rule.
+     * The threefold repetition and the fifty-move rule are reported as soon as they can be claimed.
+     *
+     * @return the reason of the draw or {@code null} if the position is not a draw
+     */
+    public DrawReason getDrawReason() {
+        switch (getCheckState()) {
+            case STALEMATE:
+                return DrawReason.STALEMATE;
+            case CHECKMATE:
+                return null;
         }
+        if (Rules.isInsufficientMaterial(this.board)) return DrawReason.INSUFFICIENT_MATERIAL;
+        if (this.board.repetitions() >= 2) return DrawReason.THREEFOLD_REPETITION;
+        if (this.board.getHalfMoveClock() >= 100) return DrawReason.FIFTY_MOVE_RULE;
+        return null;
+    }
 
-        // if there are no valid move, this should be checkmate!
-        if (this.validPlies.isEmpty()) this.checkState = CheckState.CHECKMATE;
+    /**
+     * Checks if the game is over, because it is checkmate or a draw.
+     *
+     * @return {@code true} if the game is over
+     */
+    public boolean isOver() {
+        return getCheckState() == CheckState.CHECKMATE || getDrawReason() != null;
+    }
+
+    /**
+     * Forgets the check state and the valid plies after the position was changed.
+     */
+    private void positionChanged() {
+        this.checkState = null;
+        this.validPlies = null;
     }
 
     /**
@@ -176,69 +199,121 @@ public final class Game {
      * @param ply the ply to perform
      */
     public void perform(Ply ply) {
-        // actually perform the ply
-        doPerform(ply);
-
-        // the game goes on, clear the redo buffer
-        this.redo.clear();
-    }
-
-    private void doPerform(Ply ply) {
-        // must be a known legal ply
-        if (!this.validPlies.contains(ply))
+        // must be a legal ply
+        if (!isLegal(ply))
             throw new IllegalArgumentException("Not a valid ply");
 
-        // try to perform the ply on a copy of the board
-        Board nextBoard = this.board.clone();
-        Rules.performPly(nextBoard, ply);
-
-        // add current board and ply to history
-        history.push(new HistoryItem(this.board, ply));
+        // the game goes on, forget the undone moves and their checkpoints
+        this.moves.truncate(this.plyIndex);
+        while (this.checkpoints.size() > this.plyIndex / CHECKPOINT_INTERVAL + 1)
+            this.checkpoints.remove(this.checkpoints.size() - 1);
 
-        // replace the current board
-        this.board = nextBoard;
+        // actually perform the ply
+        int move = Move.of(ply);
+        this.moves.add(move);
+        doPerform(move);
+    }
 
-        // find valid plies
-        updateValidPlies();
+    private void doPerform(int move) {
+        // perform the move on the board, it saves the state for taking the move back
+        this.board.make(move);
+        this.plyIndex++;
+        if (this.plyIndex % CHECKPOINT_INTERVAL == 0 && this.checkpoints.size() == this.plyIndex / CHECKPOINT_INTERVAL)
+            this.checkpoints.add(this.board.copyPosition());
+        positionChanged();
     }
 
     public boolean isUndoAvailable() {
-        return this.history.size() > 0;
+        return this.plyIndex > 0;
     }
 
     public void undo() {
         if (isUndoAvailable()) {
-            HistoryItem item = this.history.pop();
-
-            // put the undone item into the redo stack
-            this.redo.push(item);
-
-            // replace the board with the previous board
-            this.board = item.board;
-
-            // find valid plies
-            updateValidPlies();
+            // take back the move, this restores the previous board, a board restored from a checkpoint is replayed
+            if (this.board.getHistorySize() > 0) {
+                this.board.unmake(this.moves.get(--this.plyIndex));
+                positionChanged();
+            } else {
+                restore(this.plyIndex - 1);
+            }
         }
     }
 
     public boolean isRedoAvailable() {
-        return this.redo.size() > 0;
+        return this.plyIndex < this.moves.size();
     }
 
     public void redo() {
         if (isRedoAvailable()) {
-            // get the latest item from the redo
-            HistoryItem item = this.redo.pop();
+            // the undone move was legal in this position
+            doPerform(this.moves.get(this.plyIndex));
+        }
+    }
+
+    /**
+     * Returns the number of plies performed to reach the current position.
+     *
+     * @return the index of the current ply
+     */
+    public int getPlyIndex() {
+        return this.plyIndex;
+    }
+
+    /**
+     * Returns the number of plies of the game, including the plies that were undone and can be redone.
+     *
+     * @return the number of plies
+     */
+    public int getPlyCount() {
+        return this.moves.size();
+    }
 
-            // perform the ply
-            doPerform(item.ply);
+    /**
+     * Goes to the position after the given number of plies. The plies in between are undone or redone. A copy of the
+     * board is kept at regular intervals, so the position is reached with a bounded number of steps from the closest
+     * checkpoint.
+     *
+     * @param plyIndex the number of plies, from 0 (the initial position) to the number of plies of the game
+     * @throws IndexOutOfBoundsException if the ply index is out of range
+     */
+    public void goTo(int plyIndex) {
+        if (plyIndex < 0 || plyIndex > this.moves.size())
+            throw new IndexOutOfBoundsException("Ply index " + plyIndex + ", ply count " + this.moves.size());
+
+        // restore the closest checkpoint before the target, if it is closer than the current position
+        int checkpoint = Math.min(plyIndex / CHECKPOINT_INTERVAL, this.checkpoints.size() - 1);
+        int checkpointIndex = checkpoint * CHECKPOINT_INTERVAL;
+        if (plyIndex - checkpointIndex < Math.abs(plyIndex - this.plyIndex)
+                || this.plyIndex - plyIndex > this.board.getHistorySize()) {
+            restore(plyIndex);
+            return;
+        }
+
+        while (this.plyIndex > plyIndex) undo();
+        while (this.plyIndex < plyIndex) redo();
+    }
+
+    /**
+     * Goes to the position after the given number of plies by replaying the moves from a checkpoint. A repetition can
+     * only occur since the last pawn move or capture, so the moves are replayed from a checkpoint at least as far back
+     * as the half-move clock of the position.
+     */
+    private void restore(int plyIndex) {
+        int checkpoint = Math.min(plyIndex / CHECKPOINT_INTERVAL, this.checkpoints.size() - 1);
+        while (true) {
+            this.board = this.checkpoints.get(checkpoint).clone();
+            this.plyIndex = checkpoint * CHECKPOINT_INTERVAL;
+            while (this.plyIndex < plyIndex) doPerform(this.moves.get(this.plyIndex));
+            positionChanged();
+            if (checkpoint == 0 || this.board.getHalfMoveClock() <= this.board.getHistorySize()) return;
+            checkpoint = Math.max(0, (plyIndex - this.board.getHalfMoveClock()) / CHECKPOINT_INTERVAL);
         }
     }
 
     @Override
     public String toString() {
         return "{board=" + this.board +
-                "\ncheckState=" + this.checkState +
-                "\nvalidPlies=" + this.validPlies;
+                "\ncheckState=" + getCheckState() +
+                "\nvalidPlies=" + getValidPlies();
     }
 }
@@ -0,0 +1,146 @@
+package name.ulbricht.chess.game;
+
+/**
+ * Precomputed attack tables for sliding pieces (magic bitboards). For each square the occupancy of the relevant
+ * squares is multiplied with a magic number, the upper bits of the product index a table holding the attack set. This
+ * makes the attack generation of rooks, bishops and queens a single table lookup.
+ * <p>
+ * The magic numbers are searched once when this class is initialized. The random generator uses a fixed seed, so the
+ * tables are the same for every run.
+ */
+final class Magics {
+
+    private static final int SQUARES = Coordinate.COLUMNS * Coordinate.ROWS;
+
+    private static final long[] rookMasks = new long[SQUARES];
+    private static final long[] rookMagics = new long[SQUARES];
+    private static final int[] rookShifts = new int[SQUARES];
+    private static final long[][] rookTables = new long[SQUARES][];
+
+    private static final long[] bishopMasks = new long[SQUARES];
+    private static final long[] bishopMagics = new long[SQUARES];
+    private static final int[] bishopShifts = new int[SQUARES];
+    private static final long[][] bishopTables = new long[SQUARES][];
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        MoveDirection[] rookDirections = {
+                MoveDirection.UP, MoveDirection.RIGHT, MoveDirection.DOWN, MoveDirection.LEFT};
+        MoveDirection[] bishopDirections = {
+                MoveDirection.UP_RIGHT, MoveDirection.DOWN_RIGHT, MoveDirection.DOWN_LEFT, MoveDirection.UP_LEFT};
+
+        for (int square = 0; square < SQUARES; square++) {
+            rookMasks[square] = relevantOccupancy(square, rookDirections);
+            rookShifts[square] = 64 - Long.bitCount(rookMasks[square]);
+            rookTables[square] = new long[1 << Long.bitCount(rookMasks[square])];
+            rookMagics[square] = findMagic(square, rookMasks[square], rookShifts[square], rookTables[square], true);
+
+            bishopMasks[square] = relevantOccupancy(square, bishopDirections);
+            bishopShifts[square] = 64 - Long.bitCount(bishopMasks[square]);
+            bishopTables[square] = new long[1 << Long.bitCount(bishopMasks[square])];
+            bishopMagics[square] = findMagic(square, bishopMasks[square], bishopShifts[square], bishopTables[square], false);
+        }
+    }
+
+    /**
+     * Returns the squares attacked by a rook on the given square.
+     *
+     * @param square   the index of the square
+     * @param occupied the bitboard of all occupied squares
+     * @return the attacked squares including the first blocking square of each ray
+     */
+    static long rookAttacks(int square, long occupied) {
+        return rookTables[square][(int) (((occupied & rookMasks[square]) * rookMagics[square]) >>> rookShifts[square])];
+    }
+
+    /**
+     * Returns the squares attacked by a bishop on the given square.
+     *
+     * @param square   the index of the square
+     * @param occupied the bitboard of all occupied squares
+     * @return the attacked squares including the first blocking square of each ray
+     */
+    static long bishopAttacks(int square, long occupied) {
+        return bishopTables[square][(int) (((occupied & bishopMasks[square]) * bishopMagics[square]) >>> bishopShifts[square])];
+    }
+
+    /**
+     * Returns the squares attacked by a queen on the given square.
+     *
+     * @param square   the index of the square
+     * @param occupied the bitboard of all occupied squares
+     * @return the attacked squares including the first blocking square of each ray
+     */
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares that can block a ray from the given square. The last square of each ray is left out, because
+     * a piece on the edge of the board does not block anything behind it.
+     */
+    private static long relevantOccupancy(int square, MoveDirection[] directions) {
+        long bitboard = 1L << square;
+        long mask = Bitboard.EMPTY;
+        for (MoveDirection direction : directions) {
+            long ray = Bitboard.slide(bitboard, ~Bitboard.EMPTY, direction);
+            mask |= ray & Bitboard.shift(~Bitboard.EMPTY, direction.opposite());
+        }
+        return mask;
+    }
+
+    private static long findMagic(int square, long mask, int shift, long[] table, boolean rook) {
+        int size = table.length;
+        long[] occupancies = new long[size];
+        long[] references = new long[size];
+        int[] epochs = new int[size];
+
+        // enumerate all subsets of the mask (Carry-Rippler) and calculate their attacks
+        long bitboard = 1L << square;
+        long occupancy = Bitboard.EMPTY;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = occupancy;
+            references[i] = rook
+                    ? Bitboard.rookAttacks(bitboard, occupancy)
+                    : Bitboard.bishopAttacks(bitboard, occupancy);
+            occupancy = (occupancy - mask) & mask;
+        }
+
+        for (int epoch = 1; ; epoch++) {
+            long magic;
+            do {
+                magic = nextSparseRandom();
+            } while (Long.bitCount((mask * magic) >>> 56) < 6);
+
+            boolean found = true;
+            for (int i = 0; i < size; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+                if (epochs[index] < epoch) {
+                    epochs[index] = epoch;
+                    table[index] = references[i];
+                } else if (table[index] != references[i]) {
+                    found = false;
+                    break;
+                }
+            }
+            if (found) return magic;
+        }
+    }
+
+    private static long nextSparseRandom() {
+        return nextRandom() & nextRandom() & nextRandom();
+    }
+
+    private static long nextRandom() {
+        // xorshift64*
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+
+    private Magics() {
+        // hidden
+    }
+}
@@ -0,0 +1,197 @@
+package name.ulbricht.chess.game;
+
+import java.util.Objects;
+
+/**
+ * Encodes a ply into a single {@code int}, so the move generation and the board can work without allocating objects.
+ * The encoded move is converted from and to a {@link Ply} at the public API.
+ * <p>
+ * The bits of the encoded move are used as follows:
+ * <pre>
+ *  0 -  5  source square
+ *  6 - 11  target square
+ * 12 - 14  ply type
+ * 15 - 17  promotion piece type + 1 (0 if there is no promotion)
+ * 18 - 21  captured piece + 1 (0 if nothing is captured)
+ * 22 - 25  moving piece
+ * </pre>
+ * The value {@link #NONE} does not represent any valid move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TARGET_SHIFT = 6;
+    private static final int TYPE_SHIFT = 12;
+    private static final int TYPE_MASK = 0x7;
+    private static final int PROMOTION_SHIFT = 15;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int CAPTURED_SHIFT = 18;
+    private static final int CAPTURED_MASK = 0xF;
+    private static final int PIECE_SHIFT = 22;
+    private static final int PIECE_MASK = 0xF;
+
+    private static final PlyType[] plyTypes = PlyType.values();
+    private static final PieceType[] pieceTypes = PieceType.values();
+    private static final Piece[] pieces = Piece.values();
+
+    public static int of(PlyType type, Piece piece, int source, int target, Piece capturedPiece, PieceType promotion) {
+        return source
+                | (target << TARGET_SHIFT)
+                | (type.ordinal() << TYPE_SHIFT)
+                | ((promotion != null ? promotion.ordinal() + 1 : 0) << PROMOTION_SHIFT)
+                | ((capturedPiece != null ? capturedPiece.ordinal() + 1 : 0) << CAPTURED_SHIFT)
+                | (piece.ordinal() << PIECE_SHIFT);
+    }
+
+    /**
+     * Encodes a ply. A pawn promotion without a selected piece type promotes to a queen.
+     *
+     * @param ply the ply
+     * @return the encoded move
+     * @throws IllegalStateException if the promotion piece type is not valid
+     */
+    public static int of(Ply ply) {
+        Objects.requireNonNull(ply, "ply cannot be null");
+
+        PieceType promotion = null;
+        if (ply.type == PlyType.PAWN_PROMOTION) {
+            promotion = ply.promotion != null ? ply.promotion : PieceType.QUEEN;
+            if (!Rules.promotionPieceTypes.contains(promotion))
+                throw new IllegalStateException("Not a valid promotion piece: " + promotion);
+        }
+        return of(ply.type, ply.piece, ply.source.ordinal(), ply.target.ordinal(), ply.capturedPiece, promotion);
+    }
+
+    /**
+     * Decodes a move into a ply.
+     *
+     * @param move the encoded move
+     * @return the ply
+     */
+    public static Ply toPly(int move) {
+        Piece piece = piece(move);
+        Coordinate source = Coordinate.valueOf(source(move));
+        Coordinate target = Coordinate.valueOf(target(move));
+        Piece capturedPiece = capturedPiece(move);
+
+        Ply ply;
+        switch (type(move)) {
+            case MOVE:
+                ply = capturedPiece != null
+                        ? Ply.moveAndCaptures(piece, source, target, capturedPiece)
+                        : Ply.move(piece, source, target);
+                break;
+            case PAWN_DOUBLE_ADVANCE:
+                ply = Ply.pawnDoubleAdvance(piece, source);
+                break;
+            case PAWN_EN_PASSANT:
+                ply = Ply.pawnEnPassant(piece, source, target);
+                break;
+            case PAWN_PROMOTION:
+                ply = capturedPiece != null
+                        ? Ply.pawnPromotionAndCaptures(piece, source, target, capturedPiece)
+                        : Ply.pawnPromotion(piece, source, target);
+                ply.promotion = promotion(move);
+                break;
+            case KING_SIDE_CASTLING:
+                ply = Ply.kingSideCastling(piece);
+                break;
+            case QUEEN_SIDE_CASTLING:
+                ply = Ply.queenSideCastling(piece);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported ply type: " + type(move));
+        }
+        return ply;
+    }
+
+    public static int source(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int target(int move) {
+        return (move >>> TARGET_SHIFT) & SQUARE_MASK;
+    }
+
+    public static PlyType type(int move) {
+        return plyTypes[(move >>> TYPE_SHIFT) & TYPE_MASK];
+    }
+
+    public static Piece piece(int move) {
+        return pieces[(move >>> PIECE_SHIFT) & PIECE_MASK];
+    }
+
+    public static Piece capturedPiece(int move) {
+        int captured = (move >>> CAPTURED_SHIFT) & CAPTURED_MASK;
+        return captured != 0 ? pieces[captured - 1] : null;
+    }
+
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & CAPTURED_MASK) != 0;
+    }
+
+    public static PieceType promotion(int move) {
+        int promotion = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return promotion != 0 ? pieceTypes[promotion - 1] : null;
+    }
+
+    /**
+     * Returns the move in long algebraic notation, the source and the target square followed by the promotion piece,
+     * e.g. {@code e2e4} or {@code e7e8q}.
+     *
+     * @param move the encoded move
+     * @return the notation of the move
+     */
+    public static String toString(int move) {
+        String s = Coordinate.valueOf(source(move)).name() + Coordinate.valueOf(target(move)).name();
+        PieceType promotion = promotion(move);
+        if (promotion != null) s += Character.toLowerCase(FEN.symbol(Piece.valueOf(promotion, Player.WHITE)));
+        return s;
+    }
+
+    /**
+     * Returns the legal move of the board with the given long algebraic notation, e.g. {@code e2e4} or {@code e7e8q}.
+     *
+     * @param board    the board
+     * @param notation the notation of the move
+     * @return the encoded move
+     * @throws IllegalArgumentException if there is no such legal move
+     * @see #toString(int)
+     */
+    public static int parse(Board board, String notation) {
+        return parse(board, notation, new MoveList());
+    }
+
+    /**
+     * Returns the legal move of the board with the given long algebraic notation. Only the moves of the piece on the
+     * source square are generated. The given list is cleared and used to generate them, so parsing many moves does not
+     * allocate.
+     *
+     * @param board    the board
+     * @param notation the notation of the move
+     * @param moves    the list to generate the moves into
+     * @return the encoded move
+     * @throws IllegalArgumentException if there is no such legal move
+     */
+    public static int parse(Board board, String notation, MoveList moves) {
+        Objects.requireNonNull(board, "board cannot be null");
+        Objects.requireNonNull(notation, "notation cannot be null");
+        moves.clear();
+        if (notation.length() >= 4) {
+            int column = notation.charAt(0) - 'a';
+            int row = notation.charAt(1) - '1';
+            if (column >= 0 && column < Coordinate.COLUMNS && row >= 0 && row < Coordinate.ROWS)
+                MoveGenerator.legalMoves(board, moves, 1L << Coordinate.valueOf(column, row).ordinal());
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            if (toString(moves.get(i)).equals(notation)) return moves.get(i);
+        }
+        throw new IllegalArgumentException("Illegal move: " + notation);
+    }
+
+    private Move() {
+        // hidden
+    }
+}
@@ -22,6 +22,34 @@ public enum MoveDirection implements Direction {
         return player == Player.WHITE ? UP_RIGHT : DOWN_LEFT;
     }
 
+    /**
+     * Returns the direction pointing the other way.
+     *
+     * @return the opposite direction
+     */
+    MoveDirection opposite() {
+        switch (this) {
+            case UP:
+                return DOWN;
+            case UP_RIGHT:
+                return DOWN_LEFT;
+            case RIGHT:
+                return LEFT;
+            case DOWN_RIGHT:
+                return UP_LEFT;
+            case DOWN:
+                return UP;
+            case DOWN_LEFT:
+                return UP_RIGHT;
+            case LEFT:
+                return RIGHT;
+            case UP_LEFT:
+                return DOWN_RIGHT;
+            default:
+                throw new IllegalStateException("Unsupported direction: " + this);
+        }
+    }
+
     private final int column;
     private final int row;
 
@@ -0,0 +1,365 @@
+package name.ulbricht.chess.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the legal plies of a position. The checking and the pinned pieces are calculated once per position, so
+ * every ply can be decided without performing it on the board:
+ * <ul>
+ * <li>in double check only the king can move</li>
+ * <li>in single check the other pieces can only capture the checking piece or block the checking ray</li>
+ * <li>a pinned piece can only move along the line between its king and the pinning piece</li>
+ * <li>the king cannot move to an attacked square, including squares behind it on a checking ray</li>
+ * <li>an en-passant capture removes two pieces from a row, so it is verified against the sliding pieces</li>
+ * </ul>
+ */
+public final class MoveGenerator {
+
+    private static final long PROMOTION_ROWS = Bitboard.RANK_1 | Bitboard.RANK_8;
+
+    /**
+     * Returns all legal plies for the active player of the board. A pawn promotion is returned as a single ply, the
+     * promotion piece type is selected when the ply is performed.
+     *
+     * @param board the board
+     * @return a list of legal plies
+     */
+    static List<Ply> legalPlies(Board board) {
+        return legalPlies(board, ~Bitboard.EMPTY);
+    }
+
+    /**
+     * Returns the legal plies of the pieces on the given squares for the active player of the board.
+     *
+     * @param board   the board
+     * @param sources the bitboard of the squares of the pieces to move
+     * @return a list of legal plies
+     * @see #legalPlies(Board)
+     */
+    static List<Ply> legalPlies(Board board, long sources) {
+        MoveList moves = new MoveList();
+        legalMoves(board, moves, sources);
+
+        List<Ply> plies = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            PieceType promotion = Move.promotion(move);
+            if (promotion == null) {
+                plies.add(Move.toPly(move));
+            } else if (promotion == PieceType.QUEEN) {
+                Ply ply = Move.toPly(move);
+                ply.promotion = null;
+                plies.add(ply);
+            }
+        }
+        return plies;
+    }
+
+    /**
+     * Adds all legal moves for the active player of the board to the list. A pawn promotion is added as one move for
+     * each promotion piece type.
+     *
+     * @param board the board
+     * @param moves the list to add the encoded moves to
+     */
+    public static void legalMoves(Board board, MoveList moves) {
+        legalMoves(board, moves, ~Bitboard.EMPTY);
+    }
+
+    /**
+     * Adds the legal moves of the pieces on the given squares for the active player of the board to the list. Only the
+     * moves of these pieces are generated, so a single piece can be checked without generating all moves.
+     *
+     * @param board   the board
+     * @param moves   the list to add the encoded moves to
+     * @param sources the bitboard of the squares of the pieces to move
+     */
+    public static void legalMoves(Board board, MoveList moves, long sources) {
+        generate(board, moves, sources, true, true);
+    }
+
+    /**
+     * Adds the legal captures and pawn promotions for the active player of the board to the list. No other moves are
+     * generated, so a search of the captures does not have to filter the quiet moves.
+     *
+     * @param board the board
+     * @param moves the list to add the encoded moves to
+     */
+    public static void legalCaptures(Board board, MoveList moves) {
+        generate(board, moves, ~Bitboard.EMPTY, true, false);
+    }
+
+    /**
+     * Adds the legal moves for the active player of the board that neither capture nor promote to the list. Together
+     * with {@link #legalCaptures(Board, MoveList)} these are all legal moves, so a search can generate the quiet moves
+     * only if the captures did not suffice.
+     *
+     * @param board the board
+     * @param moves the list to add the encoded moves to
+     */
+    public static void legalQuietMoves(Board board, MoveList moves) {
+        generate(board, moves, ~Bitboard.EMPTY, false, true);
+    }
+
+    /**
+     * Checks if the active player of the board has any legal move. The moves are generated piece by piece, starting
+     * with the king, so usually only a few moves are generated before a legal move is found.
+     *
+     * @param board the board
+     * @return {@code true} if there is a legal move, {@code false} if it is checkmate or stalemate
+     */
+    public static boolean hasLegalMove(Board board) {
+        return hasLegalMove(board, new MoveList());
+    }
+
+    /**
+     * Checks if the active player of the board has any legal move. The given list is cleared and used to generate the
+     * moves, so checking many positions does not allocate.
+     *
+     * @param board the board
+     * @param moves the list to generate the moves into
+     * @return {@code true} if there is a legal move, {@code false} if it is checkmate or stalemate
+     */
+    public static boolean hasLegalMove(Board board, MoveList moves) {
+        moves.clear();
+        Player player = board.getActivePlayer();
+        int kingSquare = board.kingSquare(player);
+        long kingBit = kingSquare != Squares.NONE ? 1L << kingSquare : Bitboard.EMPTY;
+        if (kingBit != Bitboard.EMPTY) {
+            legalMoves(board, moves, kingBit);
+            if (moves.size() > 0) return true;
+        }
+        for (long pieces = board.occupancy(player) & ~kingBit; pieces != 0; pieces &= pieces - 1) {
+            legalMoves(board, moves, pieces & -pieces);
+            if (moves.size() > 0) return true;
+        }
+        return false;
+    }
+
+    private static void generate(Board board, MoveList moves, long sources, boolean captures, boolean quiet) {
+        Player player = board.getActivePlayer();
+        Player opponent = player.opponent();
+        long own = board.occupancy(player);
+        long theirs = board.occupancy(opponent);
+        long occupied = own | theirs;
+        long targets = (captures ? theirs : Bitboard.EMPTY) | (quiet ? ~occupied : Bitboard.EMPTY);
+        long pawnTargets = (captures ? theirs | PROMOTION_ROWS : Bitboard.EMPTY)
+                | (quiet ? ~theirs & ~PROMOTION_ROWS : Bitboard.EMPTY);
+
+        // a position without a king is accepted, its pieces move without regard to checks and pins
+        int kingSquare = board.kingSquare(player);
+        boolean hasKing = kingSquare != Squares.NONE;
+        long kingBit = hasKing ? 1L << kingSquare : Bitboard.EMPTY;
+        long checkers = hasKing ? Rules.attackers(board, kingSquare, occupied) & theirs : Bitboard.EMPTY;
+
+        // the king is removed from the board, so he cannot step back along a checking ray
+        boolean king = (sources & kingBit) != 0;
+        long attacked = king ? Rules.attacked(board, opponent, occupied ^ kingBit) : Bitboard.EMPTY;
+        if (king) addMoves(moves, board, kingSquare, Squares.kingTargets(kingSquare) & targets & ~attacked);
+
+        // in double check only the king can move
+        if (Long.bitCount(checkers) > 1) return;
+
+        // in single check the checking piece must be captured or the checking ray must be blocked
+        long evasions = checkers == 0
+                ? ~Bitboard.EMPTY
+                : checkers | Squares.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+
+        long pinned = hasKing ? pinned(board, kingSquare, own, theirs, opponent) : Bitboard.EMPTY;
+
+        for (long pieces = own & ~kingBit & sources; pieces != 0; pieces &= pieces - 1) {
+            int source = Long.numberOfTrailingZeros(pieces);
+
+            long allowed = evasions;
+            if ((pinned & (1L << source)) != 0) allowed &= Squares.line(kingSquare, source);
+
+            // an advance to the promotion rows is a promotion even without capturing
+            Piece piece = board.getPiece(source);
+            if (piece.type == PieceType.PAWN) addPawnMoves(moves, board, piece, source, allowed & pawnTargets);
+            else addMoves(moves, board, source, Rules.attacks(board, source) & targets & allowed);
+        }
+
+        if (captures) addEnPassantMoves(moves, board, player, kingSquare, occupied, sources);
+
+        if (quiet && checkers == 0 && king) addCastlingMoves(moves, board, player, kingSquare, occupied, attacked);
+    }
+
+    /**
+     * Checks if the encoded move is legal for the active player of the board. Only the moves of the piece on the
+     * source square of the move are generated.
+     *
+     * @param board the board
+     * @param move  the encoded move
+     * @return {@code true} if the move is legal
+     */
+    public static boolean isLegal(Board board, int move) {
+        return isLegal(board, move, new MoveList());
+    }
+
+    /**
+     * Checks if the encoded move is legal for the active player of the board. The given list is cleared and used to
+     * generate the moves of the piece, so checking many moves does not allocate.
+     *
+     * @param board the board
+     * @param move  the encoded move
+     * @param moves the list to generate the moves into
+     * @return {@code true} if the move is legal
+     */
+    public static boolean isLegal(Board board, int move, MoveList moves) {
+        moves.clear();
+        legalMoves(board, moves, 1L << Move.source(move));
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the pieces of the active player that are pinned to their king. A piece is pinned if it is the only piece
+     * between its king and an opponent sliding piece that moves along that line.
+     */
+    private static long pinned(Board board, int kingSquare, long own, long theirs, Player opponent) {
+        long queens = board.pieces(Piece.valueOf(PieceType.QUEEN, opponent));
+        long snipers = (Magics.rookAttacks(kingSquare, theirs)
+                & (board.pieces(Piece.valueOf(PieceType.ROOK, opponent)) | queens))
+                | (Magics.bishopAttacks(kingSquare, theirs)
+                & (board.pieces(Piece.valueOf(PieceType.BISHOP, opponent)) | queens));
+
+        long pinned = Bitboard.EMPTY;
+        while (snipers != 0) {
+            long blockers = Squares.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & (own | theirs);
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) pinned |= blockers & own;
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    private static void addMoves(MoveList moves, Board board, int source, long targets) {
+        Piece piece = board.getPiece(source);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(PlyType.MOVE, piece, source, target, board.getPiece(target), null));
+            targets &= targets - 1;
+        }
+    }
+
+    private static void addPawnMoves(MoveList moves, Board board, Piece piece, int source, long allowed) {
+        MoveDirection direction = MoveDirection.forward(piece.player);
+        long startRow = piece.player == Player.WHITE ? Bitboard.RANK_2 : Bitboard.RANK_7;
+        long promotionRow = piece.player == Player.WHITE ? Bitboard.RANK_8 : Bitboard.RANK_1;
+        long empty = ~board.occupancy();
+        long bitboard = 1L << source;
+
+        // first field in move direction
+        long advance = Bitboard.shift(bitboard, direction) & empty;
+        if ((advance & allowed) != 0) {
+            int target = Long.numberOfTrailingZeros(advance);
+            if ((advance & promotionRow) != 0) addPromotions(moves, piece, source, target, null);
+            else moves.add(Move.of(PlyType.MOVE, piece, source, target, null, null));
+        }
+
+        // double advance in move direction
+        long doubleAdvance = Bitboard.shift(advance, direction) & empty & allowed;
+        if ((bitboard & startRow) != 0 && doubleAdvance != 0) {
+            moves.add(Move.of(PlyType.PAWN_DOUBLE_ADVANCE, piece, source,
+                    Long.numberOfTrailingZeros(doubleAdvance), null, null));
+        }
+
+        // capturing forward left and forward right in move direction
+        long captures = Squares.pawnTargets(source, piece.player)
+                & board.occupancy(piece.player.opponent()) & allowed;
+        while (captures != 0) {
+            int target = Long.numberOfTrailingZeros(captures);
+            Piece capturedPiece = board.getPiece(target);
+            if ((promotionRow & (1L << target)) != 0)
+                addPromotions(moves, piece, source, target, capturedPiece);
+            else moves.add(Move.of(PlyType.MOVE, piece, source, target, capturedPiece, null));
+            captures &= captures - 1;
+        }
+    }
+
+    private static void addPromotions(MoveList moves, Piece piece, int source, int target, Piece capturedPiece) {
+        for (PieceType promotion : Rules.promotionPieceTypes) {
+            moves.add(Move.of(PlyType.PAWN_PROMOTION, piece, source, target, capturedPiece, promotion));
+        }
+    }
+
+    private static void addEnPassantMoves(MoveList moves, Board board, Player player, int kingSquare, long occupied,
+                                          long pawns) {
+        Coordinate enPassantTarget = board.getEnPassantTarget();
+        if (enPassantTarget == null) return;
+
+        int target = enPassantTarget.ordinal();
+        Player opponent = player.opponent();
+        Piece pawn = Piece.valueOf(PieceType.PAWN, player);
+        Piece capturedPawn = Piece.valueOf(PieceType.PAWN, opponent);
+        int captures = player == Player.WHITE ? target - Coordinate.COLUMNS : target + Coordinate.COLUMNS;
+        if (board.getPiece(captures) != capturedPawn) return;
+
+        // the own pawns attacking the target are on the squares an opponent pawn would attack from the target
+        long sources = Squares.pawnTargets(target, opponent) & board.pieces(pawn) & pawns;
+        while (sources != 0) {
+            int source = Long.numberOfTrailingZeros(sources);
+            sources &= sources - 1;
+
+            if (kingSquare == Squares.NONE) {
+                moves.add(Move.of(PlyType.PAWN_EN_PASSANT, pawn, source, target, capturedPawn, null));
+                continue;
+            }
+
+            // the capturing pawn and the captured pawn leave their squares, this may open lines to the king
+            long occupiedAfter = (occupied ^ (1L << source) ^ (1L << captures)) | (1L << target);
+            long queens = board.pieces(Piece.valueOf(PieceType.QUEEN, opponent));
+            long sliders = (Magics.rookAttacks(kingSquare, occupiedAfter)
+                    & (board.pieces(Piece.valueOf(PieceType.ROOK, opponent)) | queens))
+                    | (Magics.bishopAttacks(kingSquare, occupiedAfter)
+                    & (board.pieces(Piece.valueOf(PieceType.BISHOP, opponent)) | queens));
+            long leapers = Rules.attackers(board, kingSquare, occupiedAfter)
+                    & (board.pieces(Piece.valueOf(PieceType.KNIGHT, opponent)) | board.pieces(capturedPawn))
+                    & ~(1L << captures);
+
+            if (sliders == 0 && leapers == 0)
+                moves.add(Move.of(PlyType.PAWN_EN_PASSANT, pawn, source, target, capturedPawn, null));
+        }
+    }
+
+    private static void addCastlingMoves(MoveList moves, Board board, Player player, int kingSquare,
+                                         long occupied, long attacked) {
+        if (kingSquare != Rules.initialKingCoordinate(player).ordinal()) return;
+
+        Piece king = Piece.valueOf(PieceType.KING, player);
+        Piece rook = Piece.valueOf(PieceType.ROOK, player);
+        int rowStart = Rules.baseRowIndex(player) * Coordinate.COLUMNS;
+        boolean kingSide = player == Player.WHITE
+                ? board.isWhiteKingSideCastlingAvailable()
+                : board.isBlackKingSideCastlingAvailable();
+        boolean queenSide = player == Player.WHITE
+                ? board.isWhiteQueenSideCastlingAvailable()
+                : board.isBlackQueenSideCastlingAvailable();
+
+        // no piece between king and rook, way and target of the king cannot be attacked
+        if (kingSide) {
+            int rookSource = rowStart + Coordinate.COLUMNS - 1;
+            long way = (1L << (kingSquare + 1)) | (1L << (kingSquare + 2));
+            if (board.getPiece(rookSource) == rook
+                    && (Squares.between(kingSquare, rookSource) & occupied) == 0
+                    && (way & attacked) == 0) {
+                moves.add(Move.of(PlyType.KING_SIDE_CASTLING, king, kingSquare, kingSquare + 2, null, null));
+            }
+        }
+        if (queenSide) {
+            int rookSource = rowStart;
+            long way = (1L << (kingSquare - 1)) | (1L << (kingSquare - 2));
+            if (board.getPiece(rookSource) == rook
+                    && (Squares.between(kingSquare, rookSource) & occupied) == 0
+                    && (way & attacked) == 0) {
+                moves.add(Move.of(PlyType.QUEEN_SIDE_CASTLING, king, kingSquare, kingSquare - 2, null, null));
+            }
+        }
+    }
+
+    private MoveGenerator() {
+        // hidden
+    }
+}
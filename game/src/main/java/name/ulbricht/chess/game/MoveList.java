@@ -0,0 +1,76 @@
+package name.ulbricht.chess.game;
+
+import java.util.Arrays;
+
+/**
+ * A list of encoded moves backed by an {@code int} array. The list is meant to be reused: clearing it keeps the
+ * array, so filling it again does not allocate.
+ *
+ * @see Move
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        // no position has more than 218 legal moves
+        this.moves = new int[256];
+    }
+
+    public void add(int move) {
+        if (this.size == this.moves.length) this.moves = Arrays.copyOf(this.moves, 2 * this.size);
+        this.moves[this.size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= this.size) throw new IndexOutOfBoundsException("Index " + index + ", size " + this.size);
+        return this.moves[index];
+    }
+
+    /**
+     * Exchanges the moves at the given indices, e.g. to sort the moves while they are searched.
+     *
+     * @param i the index of the first move
+     * @param j the index of the second move
+     */
+    public void swap(int i, int j) {
+        if (i >= this.size || j >= this.size)
+            throw new IndexOutOfBoundsException("Index " + Math.max(i, j) + ", size " + this.size);
+        int move = this.moves[i];
+        this.moves[i] = this.moves[j];
+        this.moves[j] = move;
+    }
+
+    /**
+     * Removes the moves after the given size from the list.
+     *
+     * @param size the new size, not greater than the current size
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) throw new IndexOutOfBoundsException("Illegal size " + size);
+        this.size = size;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(Move.toString(this.moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
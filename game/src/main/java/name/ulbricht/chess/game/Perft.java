@@ -0,0 +1,244 @@
+package name.ulbricht.chess.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Performance test of the move generation. Perft walks the tree of all legal plies up to a given depth and counts the
+ * leaf nodes. The node counts of well-known positions are used to verify the rules, the measured time makes it a
+ * benchmark for the move generation.
+ * <p>
+ * A pawn promotion counts as four plies, one for each promotion piece type.
+ * <p>
+ * The parallel mode splits the tree into fork/join tasks down to a split depth, the remaining subtrees are counted
+ * sequentially by the worker threads. Idle workers steal pending subtrees from busy ones.
+ * <p>
+ * Usage: {@code Perft [divide | parallel <split depth>] <depth> [<fen>]}
+ */
+public final class Perft {
+
+    /**
+     * The result of a perft run.
+     */
+    public static final class Result {
+
+        public final int depth;
+        public final long nodes;
+        public final long nanos;
+
+        private Result(int depth, long nodes, long nanos) {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the number of nodes per second.
+         *
+         * @return the nodes per second
+         */
+        public long getNodesPerSecond() {
+            return this.nanos > 0 ? this.nodes * 1_000_000_000L / this.nanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("depth %2d: %,15d nodes %10.3f s %,15d nps",
+                    this.depth, this.nodes, this.nanos / 1e9, getNodesPerSecond());
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the tree of legal plies starting at the given board.
+     *
+     * @param board the board, it will not be changed
+     * @param depth the depth, at least 0
+     * @return the result with the node count
+     */
+    public static Result perft(Board board, int depth) {
+        Board copy = Objects.requireNonNull(board, "board cannot be null").clone();
+        checkDepth(depth);
+
+        long start = System.nanoTime();
+        long nodes = count(copy, depth);
+        return new Result(depth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the leaf nodes of the tree of legal plies starting at the given board using multiple threads. The result
+     * is the same as for the sequential count.
+     *
+     * @param board       the board, it will not be changed
+     * @param depth       the depth, at least 0
+     * @param splitDepth  the number of levels split into parallel tasks, at least 0
+     * @param parallelism the number of threads
+     * @return the result with the node count
+     */
+    public static Result perft(Board board, int depth, int splitDepth, int parallelism) {
+        Board copy = Objects.requireNonNull(board, "board cannot be null").clone();
+        checkDepth(depth);
+        if (splitDepth < 0) throw new IllegalArgumentException("Illegal split depth: " + splitDepth);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            long nodes = pool.invoke(new CountTask(copy, depth, splitDepth));
+            return new Result(depth, nodes, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final int splitDepth;
+
+        CountTask(Board board, int depth, int splitDepth) {
+            this.board = board;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.splitDepth == 0 || this.depth <= 1) return count(this.board, this.depth);
+
+            // each subtree gets its own board
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(this.board, moves);
+            List<CountTask> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                Board next = this.board.clone();
+                next.make(moves.get(i));
+                tasks.add(new CountTask(next, this.depth - 1, this.splitDepth - 1));
+            }
+
+            long nodes = 0;
+            for (CountTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts the leaf nodes separately for each ply of the given board. The sum of all counts is the perft result of
+     * the board. The plies are noted as source and target square followed by the promotion piece, e.g. {@code e7e8q}.
+     *
+     * @param board the board, it will not be changed
+     * @param depth the depth, at least 1
+     * @return the node count for each ply
+     */
+    public static Map<String, Long> divide(Board board, int depth) {
+        Board copy = Objects.requireNonNull(board, "board cannot be null").clone();
+        checkDepth(depth - 1);
+
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(copy, moves);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            copy.make(move);
+            counts.put(Move.toString(move), count(copy, depth - 1));
+            copy.unmake(move);
+        }
+        return counts;
+    }
+
+    static long count(Board board, int depth) {
+        // one move list per level, so the recursion does not allocate
+        MoveList[] moves = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = new MoveList();
+        }
+        return count(board, depth, moves);
+    }
+
+    private static long count(Board board, int depth, MoveList[] moveLists) {
+        if (depth == 0) return 1;
+
+        MoveList moves = moveLists[depth - 1];
+        moves.clear();
+        MoveGenerator.legalMoves(board, moves);
+
+        // the moves of the last level are counted without performing them
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.make(move);
+            nodes += count(board, depth - 1, moveLists);
+            board.unmake(move);
+        }
+        return nodes;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("Illegal depth: " + depth);
+    }
+
+    public static void main(String[] args) {
+        boolean divide = args.length > 0 && args[0].equals("divide");
+        boolean parallel = args.length > 1 && args[0].equals("parallel");
+        int offset = divide ? 1 : parallel ? 2 : 0;
+        if (args.length <= offset) {
+            System.err.println("Usage: Perft [divide | parallel <split depth>] <depth> [<fen>]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[offset]);
+        String fen = args.length > offset + 1
+                ? String.join(" ", Arrays.copyOfRange(args, offset + 1, args.length))
+                : FEN.INITIAL;
+        Board board = FEN.createBoard(fen);
+
+        System.out.println(fen);
+        if (divide) {
+            long start = System.nanoTime();
+            long nodes = 0;
+            for (Map.Entry<String, Long> entry : divide(board, depth).entrySet()) {
+                System.out.printf("%s: %,d%n", entry.getKey(), entry.getValue());
+                nodes += entry.getValue();
+            }
+            System.out.println(new Result(depth, nodes, System.nanoTime() - start));
+        } else if (parallel) {
+            int splitDepth = Integer.parseInt(args[1]);
+
+            // a shallower run warms up the JIT compiler, the sequential run gives the node count to compare with
+            if (depth > 1) perft(board, depth - 1);
+            Result sequential = perft(board, depth);
+            System.out.println("sequential " + sequential);
+
+            Result base = null;
+            int processors = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+                Result result = perft(board, depth, splitDepth, threads);
+                if (result.nodes != sequential.nodes)
+                    throw new IllegalStateException("Node count differs: " + result.nodes + " != " + sequential.nodes);
+                if (base == null) base = result;
+                System.out.printf("%3d threads %s speed-up %.2f%n",
+                        threads, result, (double) base.nanos / result.nanos);
+                if (threads == processors) break;
+            }
+        } else {
+            for (int i = 1; i <= depth; i++) {
+                System.out.println(perft(board, i));
+            }
+        }
+    }
+
+    private Perft() {
+        // hidden
+    }
+}
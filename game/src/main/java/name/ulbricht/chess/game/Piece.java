@@ -32,14 +32,18 @@ public enum Piece {
         return String.format("%s (%s)", this.type.getDisplayName(), this.player.getDisplayName());
     }
 
-    public static Piece valueOf(PieceType type, Player player) {
-        Objects.requireNonNull(type);
-        Objects.requireNonNull(player);
+    private static final Piece[][] pieces = new Piece[PieceType.values().length][Player.values().length];
 
+    static {
         for (Piece piece : values()) {
-            if (piece.type == type && piece.player == player) return piece;
+            pieces[piece.type.ordinal()][piece.player.ordinal()] = piece;
         }
+    }
+
+    public static Piece valueOf(PieceType type, Player player) {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(player);
 
-        throw new IllegalStateException("Piece " + type + " not found for player " + player);
+        return pieces[type.ordinal()][player.ordinal()];
     }
 }
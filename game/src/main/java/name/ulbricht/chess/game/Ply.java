@@ -1,6 +1,5 @@
 package name.ulbricht.chess.game;
 
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -91,8 +90,10 @@ public final class Ply {
 
     private static void requirePieceType(Piece piece, PieceType... validPieceTypes) {
         Objects.requireNonNull(piece, "piece cannot be null");
-        if (!Arrays.asList(validPieceTypes).contains(piece.type))
-            throw new IllegalArgumentException("Illegal piece type: " + piece.type);
+        for (PieceType validPieceType : validPieceTypes) {
+            if (piece.type == validPieceType) return;
+        }
+        throw new IllegalArgumentException("Illegal piece type: " + piece.type);
     }
 
     public final PlyType type;
@@ -1,7 +1,5 @@
 package name.ulbricht.chess.game;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -33,292 +31,279 @@ public final class Rules {
                 : Coordinate.a8;
     }
 
-    static List<Coordinate> attacks(Board board, Player attacker) {
-        List<Coordinate> squares = new ArrayList<>();
-
-        for (Coordinate source : Coordinate.values()) {
-            Piece piece = board.getPiece(source);
-            if (piece != null && piece.player == attacker) {
-                switch (piece.type) {
-                    case QUEEN:
-                        squares.addAll(attacks(board, source, Integer.MAX_VALUE, MoveDirection.values()));
-                        break;
-                    case KING:
-                        squares.addAll(attacks(board, source, 1, MoveDirection.values()));
-                        break;
-                    case ROOK:
-                        squares.addAll(attacks(board, source, Integer.MAX_VALUE,
-                                MoveDirection.UP, MoveDirection.RIGHT, MoveDirection.DOWN, MoveDirection.LEFT));
-                        break;
-                    case BISHOP:
-                        squares.addAll(attacks(board, source, Integer.MAX_VALUE,
-                                MoveDirection.UP_LEFT, MoveDirection.UP_RIGHT, MoveDirection.DOWN_RIGHT, MoveDirection.DOWN_LEFT));
-                        break;
-                    case KNIGHT:
-                        squares.addAll(attacks(board, source, 1, KnightJump.values()));
-                        break;
-                    case PAWN:
-                        squares.addAll(attacks(board, source, 1, MoveDirection.forwardLeft(piece.player), MoveDirection.forwardRight(piece.player)));
-                        break;
-                }
-            }
-        }
-
-        return squares;
+    /**
+     * Returns the bitboard of all squares attacked by the pieces of the given player. Squares occupied by pieces of the
+     * attacker itself are included, because these pieces are protected.
+     *
+     * @param board    the board
+     * @param attacker the attacking player
+     * @return the bitboard of attacked squares
+     */
+    static long attacked(Board board, Player attacker) {
+        return attacked(board, attacker, board.occupancy());
     }
 
-    private static List<Coordinate> attacks(Board board, Coordinate source, int steps, Direction... directions) {
-        Piece piece = board.getPiece(source);
-        if (piece == null) return Collections.emptyList();
-
-        List<Coordinate> squares = new ArrayList<>();
-        for (Direction direction : directions) {
-            for (int step = 1; step <= steps; step++) {
-                Coordinate target = source.go(direction, step);
-                if (target == null) break;
-                Piece targetPiece = board.getPiece(target);
-                if (targetPiece == null) {
-                    squares.add(target);
-                } else if (targetPiece.player.isOpponent(piece.player)) {
-                    squares.add(target);
-                    break;
-                } else {
-                    break;
-                }
-            }
+    /**
+     * Returns the bitboard of all squares attacked by the pieces of the given player, assuming the given occupancy
+     * for the rays of the sliding pieces.
+     *
+     * @param board    the board
+     * @param attacker the attacking player
+     * @param occupied the bitboard of occupied squares blocking sliding pieces
+     * @return the bitboard of attacked squares
+     */
+    static long attacked(Board board, Player attacker, long occupied) {
+        long queens = board.pieces(Piece.valueOf(PieceType.QUEEN, attacker));
+
+        long attacks = Bitboard.pawnAttacks(board.pieces(Piece.valueOf(PieceType.PAWN, attacker)), attacker)
+                | Bitboard.knightAttacks(board.pieces(Piece.valueOf(PieceType.KNIGHT, attacker)))
+                | Bitboard.kingAttacks(board.pieces(Piece.valueOf(PieceType.KING, attacker)));
+
+        long bishops = board.pieces(Piece.valueOf(PieceType.BISHOP, attacker)) | queens;
+        while (bishops != 0) {
+            attacks |= Magics.bishopAttacks(Long.numberOfTrailingZeros(bishops), occupied);
+            bishops &= bishops - 1;
         }
-        return squares;
-    }
 
-    static List<Ply> plies(Board board, Coordinate source, int steps, Direction... directions) {
-        Piece piece = board.getPiece(source);
-        if (piece == null) return Collections.emptyList();
-
-        List<Ply> plies = new ArrayList<>();
-        for (Direction direction : directions) {
-            for (int step = 1; step <= steps; step++) {
-                Coordinate target = source.go(direction, step);
-                if (target == null) break;
-                Piece targetPiece = board.getPiece(target);
-                if (targetPiece == null) {
-                    plies.add(Ply.move(piece, source, target));
-                } else if (targetPiece.player.isOpponent(piece.player)) {
-                    plies.add(Ply.moveAndCaptures(piece, source, target, targetPiece));
-                    break;
-                } else {
-                    break;
-                }
-            }
+        long rooks = board.pieces(Piece.valueOf(PieceType.ROOK, attacker)) | queens;
+        while (rooks != 0) {
+            attacks |= Magics.rookAttacks(Long.numberOfTrailingZeros(rooks), occupied);
+            rooks &= rooks - 1;
         }
-        return plies;
-    }
 
-    static List<Ply> pawnPlies(Board board, Coordinate source, Coordinate enPassantTarget) {
-        Piece piece = board.getPiece(source);
-        if (piece == null) return Collections.emptyList();
-
-        List<Ply> plies = new ArrayList<>();
-        Direction direction = MoveDirection.forward(piece.player);
-        int startRow = piece.player == Player.WHITE ? 1 : 6;
-        int promotionRow = baseRowIndex(piece.player.opponent());
-
-        // first field in move direction
-        Coordinate target = source.go(direction);
-        if (target != null && board.isEmpty(target)) {
-            if (target.rowIndex == promotionRow) {
-                plies.add(Ply.pawnPromotion(piece, source, target));
-            } else {
-                plies.add(Ply.move(piece, source, target));
-            }
-
-            // double advance in move direction
-            if (source.rowIndex == startRow) {
-                target = source.go(direction, 2);
-                if (target != null && board.isEmpty(target)) {
-                    plies.add(Ply.pawnDoubleAdvance(piece, source));
-                }
-            }
-        }
-
-        // capturing forward left and forward right in move direction
-        for (Direction captureDirection : new Direction[]{
-                MoveDirection.forwardLeft(piece.player), MoveDirection.forwardRight(piece.player)}) {
-            target = source.go(captureDirection);
-            if (target != null) {
-                Piece capturedPiece = board.getPiece(target);
-                if (capturedPiece != null && capturedPiece.player.isOpponent(piece.player)) {
-                    if (target.rowIndex == promotionRow) {
-                        plies.add(Ply.pawnPromotionAndCaptures(piece, source, target, capturedPiece));
-                    } else {
-                        plies.add(Ply.moveAndCaptures(piece, source, target, capturedPiece));
-                    }
-                }
-                if (target == enPassantTarget) {
-                    Coordinate captures = Coordinate.valueOf(target.columnIndex, piece.player == Player.WHITE ? 4 : 3);
-                    capturedPiece = board.getPiece(captures);
-                    if (capturedPiece.type == PieceType.PAWN && capturedPiece.player.isOpponent(piece.player)) {
-                        plies.add(Ply.pawnEnPassant(piece, source, target));
-                    }
-                }
-            }
-        }
-
-        return plies;
+        return attacks;
     }
 
-    static Ply kingSideCastlingPly(Board board, Coordinate source, List<Coordinate> attacked) {
-        Piece piece = board.getPiece(source);
-        if (piece == null) return null;
-
-        // piece must be a king
-        if (piece.type != PieceType.KING)
-            throw new IllegalArgumentException("Castling not allowed for " + piece.type);
-
-        // king must be on his initial position
-        if (source != initialKingCoordinate(piece.player))
-            throw new IllegalArgumentException("Not a valid source " + source);
-
-        // king cannot be in check
-        if (attacked.contains(source)) return null;
-
-        // rook must be on its initial position
-        Coordinate rookSource = initialKingSideRookCoordinate(piece.player);
-        if (board.getPiece(rookSource) != Piece.valueOf(PieceType.ROOK, piece.player)) return null;
-
-        // no piece between king and rook
-        Coordinate square = source.go(MoveDirection.RIGHT);
-        while (square != rookSource) {
-            if (board.getPiece(square) != null) return null;
-            square = square.go(MoveDirection.RIGHT);
-        }
+    /**
+     * Returns the bitboard of all pieces of both players attacking the given square.
+     *
+     * @param board    the board
+     * @param square   the index of the attacked square
+     * @param occupied the bitboard of occupied squares blocking sliding pieces
+     * @return the bitboard of attacking pieces
+     */
+    public static long attackers(Board board, int square, long occupied) {
+        long queens = board.pieces(Piece.WHITE_QUEEN) | board.pieces(Piece.BLACK_QUEEN);
+        long rooks = board.pieces(Piece.WHITE_ROOK) | board.pieces(Piece.BLACK_ROOK) | queens;
+        long bishops = board.pieces(Piece.WHITE_BISHOP) | board.pieces(Piece.BLACK_BISHOP) | queens;
+
+        return (Squares.pawnTargets(square, Player.BLACK) & board.pieces(Piece.WHITE_PAWN))
+                | (Squares.pawnTargets(square, Player.WHITE) & board.pieces(Piece.BLACK_PAWN))
+                | (Squares.knightTargets(square) & (board.pieces(Piece.WHITE_KNIGHT) | board.pieces(Piece.BLACK_KNIGHT)))
+                | (Squares.kingTargets(square) & (board.pieces(Piece.WHITE_KING) | board.pieces(Piece.BLACK_KING)))
+                | (Magics.rookAttacks(square, occupied) & rooks)
+                | (Magics.bishopAttacks(square, occupied) & bishops);
+    }
 
-        // way and target of the king cannot be in check
-        if (attacked.contains(source.go(MoveDirection.RIGHT))) return null;
-        if (attacked.contains(source.go(MoveDirection.RIGHT, 2))) return null;
+    /**
+     * Checks if the given square is attacked by any piece of the given player.
+     *
+     * @param board    the board
+     * @param square   the index of the square
+     * @param attacker the attacking player
+     * @return {@code true} if the square is attacked
+     */
+    static boolean isAttacked(Board board, int square, Player attacker) {
+        return (attackers(board, square, board.occupancy()) & board.occupancy(attacker)) != 0;
+    }
 
-        return Ply.kingSideCastling(piece);
+    /**
+     * Checks if the king of the given player is attacked by the opponent.
+     *
+     * @param board  the board
+     * @param player the player
+     * @return {@code true} if the king is in check
+     */
+    public static boolean isInCheck(Board board, Player player) {
+        int king = board.kingSquare(player);
+        return king != Squares.NONE && isAttacked(board, king, player.opponent());
     }
 
-    static Ply queenSideCastlingPly(Board board, Coordinate source, List<Coordinate> attacked) {
+    /**
+     * Returns the bitboard of all squares attacked by the piece on the given square.
+     *
+     * @param board  the board
+     * @param source the index of the square of the piece
+     * @return the bitboard of attacked squares or {@link Bitboard#EMPTY} if the square is empty
+     */
+    static long attacks(Board board, int source) {
         Piece piece = board.getPiece(source);
-        if (piece == null) return null;
-
-        // piece must be a king
-        if (piece.type != PieceType.KING)
-            throw new IllegalArgumentException("Castling not allowed for " + piece.type);
-
-        // king must be on his initial position
-        if (source != initialKingCoordinate(piece.player))
-            throw new IllegalArgumentException("Not a valid source " + source);
-
-        // king cannot be in check
-        if (attacked.contains(source)) return null;
-
-        // rook must be on its initial position
-        Coordinate rookSource = initialQueenSideRookCoordinate(piece.player);
-        if (board.getPiece(rookSource) != Piece.valueOf(PieceType.ROOK, piece.player)) return null;
-
-        // no piece between king and rook
-        Coordinate square = source.go(MoveDirection.LEFT);
-        while (square != rookSource) {
-            if (board.getPiece(square) != null) return null;
-            square = square.go(MoveDirection.LEFT);
+        if (piece == null) return Bitboard.EMPTY;
+
+        switch (piece.type) {
+            case QUEEN:
+                return Magics.queenAttacks(source, board.occupancy());
+            case KING:
+                return Squares.kingTargets(source);
+            case ROOK:
+                return Magics.rookAttacks(source, board.occupancy());
+            case BISHOP:
+                return Magics.bishopAttacks(source, board.occupancy());
+            case KNIGHT:
+                return Squares.knightTargets(source);
+            case PAWN:
+                return Squares.pawnTargets(source, piece.player);
+            default:
+                throw new IllegalArgumentException("Unsupported piece type: " + piece.type);
         }
-
-        // way and target of the king cannot be in check
-        if (attacked.contains(source.go(MoveDirection.LEFT))) return null;
-        if (attacked.contains(source.go(MoveDirection.LEFT, 2))) return null;
-
-        return Ply.queenSideCastling(piece);
     }
 
-    static void performPly(Board board, Ply ply) {
+    /**
+     * Performs the encoded move on the board: the pieces are moved, the castling availability and the en-passant target
+     * are updated and the player is switched.
+     *
+     * @param board the board
+     * @param move  the encoded move
+     */
+    static void performPly(Board board, int move) {
+        int source = Move.source(move);
+        int target = Move.target(move);
+        Piece piece = Move.piece(move);
+
         board.setEnPassantTarget(null);
 
-        switch (ply.type) {
+        switch (Move.type(move)) {
             case MOVE:
-                if (ply.captures != null) board.setPiece(ply.captures, null);
-                move(board, ply.source, ply.target);
+                move(board, source, target);
                 break;
             case PAWN_DOUBLE_ADVANCE:
-                move(board, ply.source, ply.target);
-                board.setEnPassantTarget(Coordinate.valueOf(ply.target.columnIndex, ply.piece.player == Player.WHITE ? 2 : 5));
+                move(board, source, target);
+                board.setEnPassantTarget(Coordinate.valueOf((source + target) / 2));
                 break;
             case PAWN_EN_PASSANT:
-                board.setPiece(ply.captures, null);
-                move(board, ply.source, ply.target);
+                board.setPiece(enPassantCaptures(source, target), null);
+                move(board, source, target);
                 break;
             case PAWN_PROMOTION:
-                Piece promotionPiece = Piece.valueOf(
-                        ply.promotion != null ? ply.promotion : PieceType.QUEEN, ply.piece.player);
-                if (!promotionPieceTypes.contains(promotionPiece.type))
-                    throw new IllegalStateException("Not a valid promotion piece: " + promotionPiece);
-
-                if (ply.captures != null) board.setPiece(ply.captures, null);
-                board.setPiece(ply.source, null);
-                board.setPiece(ply.target, promotionPiece);
+                board.setPiece(source, null);
+                board.setPiece(target, Piece.valueOf(Move.promotion(move), piece.player));
+                break;
+            case KING_SIDE_CASTLING:
+                move(board, source, target);
+                move(board, source + Coordinate.COLUMNS - 1 - source % Coordinate.COLUMNS, source + 1);
+                break;
+            case QUEEN_SIDE_CASTLING:
+                move(board, source, target);
+                move(board, source - source % Coordinate.COLUMNS, source - 1);
                 break;
-            case KING_SIDE_CASTLING: {
-                move(board, ply.source, ply.target);
-                int row = baseRowIndex(ply.piece.player);
-                move(board,
-                        Coordinate.valueOf(Coordinate.COLUMNS - 1, row),
-                        ply.source.go(MoveDirection.RIGHT));
-            }
-            break;
-            case QUEEN_SIDE_CASTLING: {
-                move(board, ply.source, ply.target);
-                int row = baseRowIndex(ply.piece.player);
-                move(board,
-                        Coordinate.valueOf(0, row),
-                        ply.source.go(MoveDirection.LEFT));
-            }
-            break;
             default:
-                throw new IllegalArgumentException("Unsupported ply type: " + ply.type);
+                throw new IllegalArgumentException("Unsupported ply type: " + Move.type(move));
         }
 
         // update castling availability
-        switch (ply.piece) {
+        switch (piece) {
             case WHITE_ROOK:
-                if (ply.source == Coordinate.a1) board.setWhiteQueenSideCastlingAvailable(false);
-                if (ply.source == Coordinate.h1) board.setWhiteKingSideCastlingAvailable(false);
+                if (source == Coordinate.a1.ordinal()) board.setWhiteQueenSideCastlingAvailable(false);
+                if (source == Coordinate.h1.ordinal()) board.setWhiteKingSideCastlingAvailable(false);
                 break;
             case BLACK_ROOK:
-                if (ply.source == Coordinate.a8) board.setBlackQueenSideCastlingAvailable(false);
-                if (ply.source == Coordinate.h8) board.setBlackKingSideCastlingAvailable(false);
+                if (source == Coordinate.a8.ordinal()) board.setBlackQueenSideCastlingAvailable(false);
+                if (source == Coordinate.h8.ordinal()) board.setBlackKingSideCastlingAvailable(false);
                 break;
             case WHITE_KING:
-                if (ply.source == Rules.initialKingCoordinate(Player.WHITE)) {
+                if (source == Coordinate.e1.ordinal()) {
                     board.setWhiteQueenSideCastlingAvailable(false);
                     board.setWhiteKingSideCastlingAvailable(false);
                 }
                 break;
             case BLACK_KING:
-                if (ply.source == Rules.initialKingCoordinate(Player.BLACK)) {
+                if (source == Coordinate.e8.ordinal()) {
                     board.setBlackQueenSideCastlingAvailable(false);
                     board.setBlackKingSideCastlingAvailable(false);
                 }
                 break;
         }
-        if (ply.capturedPiece != null) {
-            switch (ply.capturedPiece) {
+        Piece capturedPiece = Move.capturedPiece(move);
+        if (capturedPiece != null) {
+            switch (capturedPiece) {
                 case WHITE_ROOK:
-                    if (ply.captures == Coordinate.a1) board.setWhiteQueenSideCastlingAvailable(false);
-                    if (ply.captures == Coordinate.h1) board.setWhiteKingSideCastlingAvailable(false);
+                    if (target == Coordinate.a1.ordinal()) board.setWhiteQueenSideCastlingAvailable(false);
+                    if (target == Coordinate.h1.ordinal()) board.setWhiteKingSideCastlingAvailable(false);
                     break;
                 case BLACK_ROOK:
-                    if (ply.captures == Coordinate.a8) board.setBlackQueenSideCastlingAvailable(false);
-                    if (ply.captures == Coordinate.h8) board.setBlackKingSideCastlingAvailable(false);
+                    if (target == Coordinate.a8.ordinal()) board.setBlackQueenSideCastlingAvailable(false);
+                    if (target == Coordinate.h8.ordinal()) board.setBlackKingSideCastlingAvailable(false);
                     break;
             }
         }
 
+        // a pawn move or a capture cannot be repeated, so it resets the half-move clock
+        if (piece.type == PieceType.PAWN || capturedPiece != null) board.setHalfMoveClock(0);
+        else board.setHalfMoveClock(board.getHalfMoveClock() + 1);
+        if (piece.player == Player.BLACK) board.setFullMoveNumber(board.getFullMoveNumber() + 1);
+
         // switch the player
         board.setActivePlayer(board.getActivePlayer().opponent());
     }
 
-    private static void move(Board board, Coordinate source, Coordinate target) {
+    /**
+     * Takes back the piece movements of a move performed by {@link #performPly(Board, int)} and switches the player
+     * back. Castling availability, the en-passant target and the clocks are not restored here, they are saved by the
+     * board.
+     *
+     * @param board the board
+     * @param move  the encoded move to take back
+     */
+    static void undoPly(Board board, int move) {
+        int source = Move.source(move);
+        int target = Move.target(move);
+
+        // switch the player back
+        board.setActivePlayer(board.getActivePlayer().opponent());
+
+        switch (Move.type(move)) {
+            case MOVE:
+            case PAWN_DOUBLE_ADVANCE:
+            case PAWN_PROMOTION:
+                board.setPiece(target, Move.capturedPiece(move));
+                board.setPiece(source, Move.piece(move));
+                break;
+            case PAWN_EN_PASSANT:
+                board.setPiece(target, null);
+                board.setPiece(source, Move.piece(move));
+                board.setPiece(enPassantCaptures(source, target), Move.capturedPiece(move));
+                break;
+            case KING_SIDE_CASTLING:
+                move(board, target, source);
+                move(board, source + 1, source + Coordinate.COLUMNS - 1 - source % Coordinate.COLUMNS);
+                break;
+            case QUEEN_SIDE_CASTLING:
+                move(board, target, source);
+                move(board, source - 1, source - source % Coordinate.COLUMNS);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported ply type: " + Move.type(move));
+        }
+    }
+
+    /**
+     * Checks if neither player has enough material left to checkmate: only kings, a king and a single minor piece
+     * against a king, or kings and bishops that are all on squares of the same colour.
+     *
+     * @param board the board
+     * @return {@code true} if the material is insufficient
+     */
+    public static boolean isInsufficientMaterial(Board board) {
+        long heavy = board.pieces(Piece.WHITE_PAWN) | board.pieces(Piece.BLACK_PAWN)
+                | board.pieces(Piece.WHITE_ROOK) | board.pieces(Piece.BLACK_ROOK)
+                | board.pieces(Piece.WHITE_QUEEN) | board.pieces(Piece.BLACK_QUEEN);
+        if (heavy != 0) return false;
+
+        long knights = board.pieces(Piece.WHITE_KNIGHT) | board.pieces(Piece.BLACK_KNIGHT);
+        long bishops = board.pieces(Piece.WHITE_BISHOP) | board.pieces(Piece.BLACK_BISHOP);
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+        return knights == 0 && ((bishops & Bitboard.LIGHT_SQUARES) == 0 || (bishops & Bitboard.DARK_SQUARES) == 0);
+    }
+
+    /**
+     * Returns the square of the pawn captured en passant: it is on the row of the capturing pawn and in the column of
+     * the target.
+     */
+    private static int enPassantCaptures(int source, int target) {
+        return source - source % Coordinate.COLUMNS + target % Coordinate.COLUMNS;
+    }
+
+    private static void move(Board board, int source, int target) {
         Piece piece = board.getPiece(source);
         board.setPiece(source, null);
         board.setPiece(target, piece);
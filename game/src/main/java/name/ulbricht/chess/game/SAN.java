@@ -129,14 +129,12 @@ public final class SAN {
      */
     public static Ply findPly(Game game, SANPly sanPly) {
         Player player = game.getActivePlayer();
-        List<name.ulbricht.chess.game.Ply> plies = game.getValidPlies();
-        if (plies.isEmpty()) return null;
 
+        // only the plies of the noted piece type are generated
         switch (sanPly.type) {
             case MOVE: {
                 Piece piece = Piece.valueOf(sanPly.piece, player);
-                List<Ply> filteredPlies = game.getValidPlies().stream()
-                        .filter(p -> p.piece == piece)
+                List<Ply> filteredPlies = game.getValidPlies(piece).stream()
                         .filter(p -> p.target == sanPly.target)
                         .collect(Collectors.toList());
                 if (filteredPlies.isEmpty()) return null;
@@ -195,11 +193,11 @@ public final class SAN {
                 return ply;
             }
             case KING_SIDE_CASTLING:
-                return game.getValidPlies().stream()
+                return game.getValidPlies(Piece.valueOf(PieceType.KING, player)).stream()
                         .filter(p -> p.type == PlyType.KING_SIDE_CASTLING)
                         .findFirst().orElse(null);
             case QUEEN_SIDE_CASTLING:
-                return game.getValidPlies().stream()
+                return game.getValidPlies(Piece.valueOf(PieceType.KING, player)).stream()
                         .filter(p -> p.type == PlyType.QUEEN_SIDE_CASTLING)
                         .findFirst().orElse(null);
             default:
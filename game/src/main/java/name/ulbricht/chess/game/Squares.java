@@ -0,0 +1,153 @@
+package name.ulbricht.chess.game;
+
+/**
+ * Precomputed geometry of the squares of a board. The squares are given by their index (the ordinal value of the
+ * {@link Coordinate}), the tables answer the simple geometric questions of the move generation with a single lookup.
+ */
+final class Squares {
+
+    /**
+     * Returned by {@link #neighbour(int, MoveDirection)} if there is no neighbour in that direction.
+     */
+    static final int NONE = -1;
+
+    private static final int SQUARES = Coordinate.COLUMNS * Coordinate.ROWS;
+    private static final MoveDirection[] directions = MoveDirection.values();
+
+    private static final int[][] neighbours = new int[directions.length][SQUARES];
+    private static final long[][] rays = new long[directions.length][SQUARES];
+    private static final long[] knightTargets = new long[SQUARES];
+    private static final long[] kingTargets = new long[SQUARES];
+    private static final long[][] pawnTargets = new long[Player.values().length][SQUARES];
+    private static final long[][] between = new long[SQUARES][SQUARES];
+    private static final long[][] lines = new long[SQUARES][SQUARES];
+    private static final int[][] distances = new int[SQUARES][SQUARES];
+
+    static {
+        for (int square = 0; square < SQUARES; square++) {
+            for (MoveDirection direction : directions) {
+                neighbours[direction.ordinal()][square] = go(square, direction.column(), direction.row());
+            }
+        }
+
+        for (int square = 0; square < SQUARES; square++) {
+            for (MoveDirection direction : directions) {
+                long ray = Bitboard.EMPTY;
+                for (int next = neighbour(square, direction); next != NONE; next = neighbour(next, direction)) {
+                    ray |= 1L << next;
+                }
+                rays[direction.ordinal()][square] = ray;
+            }
+
+            for (KnightJump jump : KnightJump.values()) {
+                int target = go(square, jump.column(), jump.row());
+                if (target != NONE) knightTargets[square] |= 1L << target;
+            }
+            for (MoveDirection direction : directions) {
+                int target = neighbour(square, direction);
+                if (target != NONE) kingTargets[square] |= 1L << target;
+            }
+            for (Player player : Player.values()) {
+                for (MoveDirection direction : new MoveDirection[]{
+                        MoveDirection.forwardLeft(player), MoveDirection.forwardRight(player)}) {
+                    int target = neighbour(square, direction);
+                    if (target != NONE) pawnTargets[player.ordinal()][square] |= 1L << target;
+                }
+            }
+        }
+
+        for (int square1 = 0; square1 < SQUARES; square1++) {
+            for (int square2 = 0; square2 < SQUARES; square2++) {
+                distances[square1][square2] = Math.max(
+                        Math.abs((square1 % Coordinate.COLUMNS) - (square2 % Coordinate.COLUMNS)),
+                        Math.abs((square1 / Coordinate.COLUMNS) - (square2 / Coordinate.COLUMNS)));
+            }
+
+            // the squares on the ray from square 1 are between if they are also on the opposite ray from square 2
+            for (MoveDirection direction : directions) {
+                long ray = rays[direction.ordinal()][square1];
+                long opposite = rays[direction.opposite().ordinal()][square1];
+                for (long targets = ray; targets != 0; targets &= targets - 1) {
+                    int square2 = Long.numberOfTrailingZeros(targets);
+                    between[square1][square2] = ray & rays[direction.opposite().ordinal()][square2];
+                    lines[square1][square2] = ray | opposite | (1L << square1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the adjacent square in the given direction.
+     *
+     * @param square    the index of the square
+     * @param direction the direction
+     * @return the index of the neighbour or {@link #NONE} at the edge of the board
+     */
+    static int neighbour(int square, MoveDirection direction) {
+        return neighbours[direction.ordinal()][square];
+    }
+
+    /**
+     * Returns the squares from the given square in the given direction up to the edge of the board, not including the
+     * square itself.
+     */
+    static long ray(int square, MoveDirection direction) {
+        return rays[direction.ordinal()][square];
+    }
+
+    /**
+     * Returns the squares a knight can jump to from the given square.
+     */
+    static long knightTargets(int square) {
+        return knightTargets[square];
+    }
+
+    /**
+     * Returns the squares a king can step to from the given square.
+     */
+    static long kingTargets(int square) {
+        return kingTargets[square];
+    }
+
+    /**
+     * Returns the squares a pawn of the given player attacks from the given square.
+     */
+    static long pawnTargets(int square, Player player) {
+        return pawnTargets[player.ordinal()][square];
+    }
+
+    /**
+     * Returns the squares strictly between two squares on a common row, column or diagonal. If the squares are not on
+     * a common line the result is empty.
+     */
+    static long between(int square1, int square2) {
+        return between[square1][square2];
+    }
+
+    /**
+     * Returns all squares of the row, column or diagonal through both squares, including the squares themselves. If
+     * the squares are not on a common line the result is empty.
+     */
+    static long line(int square1, int square2) {
+        return lines[square1][square2];
+    }
+
+    /**
+     * Returns the number of king steps between two squares.
+     */
+    static int distance(int square1, int square2) {
+        return distances[square1][square2];
+    }
+
+    private static int go(int square, int columnStep, int rowStep) {
+        int column = square % Coordinate.COLUMNS + columnStep;
+        int row = square / Coordinate.COLUMNS + rowStep;
+        return column >= 0 && column < Coordinate.COLUMNS && row >= 0 && row < Coordinate.ROWS
+                ? row * Coordinate.COLUMNS + column
+                : NONE;
+    }
+
+    private Squares() {
+        // hidden
+    }
+}
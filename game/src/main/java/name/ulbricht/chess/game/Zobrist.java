@@ -0,0 +1,102 @@
+package name.ulbricht.chess.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. The key of a position is the exclusive or of the keys of all its features: each
+ * piece on its square, the black player to move, each available castling and the column of the en-passant target.
+ * Changing a feature changes the key by a single exclusive or, so the board can update its key incrementally.
+ * <p>
+ * The en-passant target is only a feature if a pawn of the active player attacks it. Otherwise the capture is not
+ * possible and the position is the same as without the target, for repetitions as well as for a transposition table.
+ * <p>
+ * The keys are created from a fixed seed, so the key of a position is the same in every run.
+ */
+final class Zobrist {
+
+    private static final int SQUARES = Coordinate.COLUMNS * Coordinate.ROWS;
+
+    private static final long[] pieceKeys = new long[Piece.values().length * SQUARES];
+    private static final long blackPlayerKey;
+    private static final long[] castlingKeys = new long[4];
+    private static final long[] enPassantKeys = new long[Coordinate.COLUMNS];
+
+    static final int WHITE_KING_SIDE_CASTLING = 0;
+    static final int WHITE_QUEEN_SIDE_CASTLING = 1;
+    static final int BLACK_KING_SIDE_CASTLING = 2;
+    static final int BLACK_QUEEN_SIDE_CASTLING = 3;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < pieceKeys.length; i++) pieceKeys[i] = random.nextLong();
+        blackPlayerKey = random.nextLong();
+        for (int i = 0; i < castlingKeys.length; i++) castlingKeys[i] = random.nextLong();
+        for (int i = 0; i < enPassantKeys.length; i++) enPassantKeys[i] = random.nextLong();
+    }
+
+    static long piece(Piece piece, int square) {
+        return pieceKeys[piece.ordinal() * SQUARES + square];
+    }
+
+    static long player(Player player) {
+        return player == Player.BLACK ? blackPlayerKey : 0L;
+    }
+
+    static long castling(int castling) {
+        return castlingKeys[castling];
+    }
+
+    static long enPassant(Board board) {
+        Coordinate target = board.getEnPassantTarget();
+        if (target == null) return 0L;
+        // the pawns attacking the target stand where a pawn of the opponent on the target would attack
+        Player player = board.getActivePlayer();
+        long attackers = Bitboard.pawnAttacks(1L << target.ordinal(), player.opponent());
+        if ((attackers & board.pieces(Piece.valueOf(PieceType.PAWN, player))) == 0) return 0L;
+        return enPassantKeys[target.columnIndex];
+    }
+
+    /**
+     * Calculates the key of the board from scratch. The board maintains its key incrementally, this method is used to
+     * verify it.
+     *
+     * @param board the board
+     * @return the key
+     */
+    static long key(Board board) {
+        long key = 0L;
+        for (long occupied = board.occupancy(); occupied != 0; occupied &= occupied - 1) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            key ^= piece(board.getPiece(square), square);
+        }
+        key ^= player(board.getActivePlayer());
+        if (board.isWhiteKingSideCastlingAvailable()) key ^= castling(WHITE_KING_SIDE_CASTLING);
+        if (board.isWhiteQueenSideCastlingAvailable()) key ^= castling(WHITE_QUEEN_SIDE_CASTLING);
+        if (board.isBlackKingSideCastlingAvailable()) key ^= castling(BLACK_KING_SIDE_CASTLING);
+        if (board.isBlackQueenSideCastlingAvailable()) key ^= castling(BLACK_QUEEN_SIDE_CASTLING);
+        key ^= enPassant(board);
+        return key;
+    }
+
+    /**
+     * Calculates the key of the pawns of the board from scratch. The board maintains its pawn key incrementally, this
+     * method is used to verify it.
+     *
+     * @param board the board
+     * @return the pawn key
+     */
+    static long pawnKey(Board board) {
+        long key = 0L;
+        for (Player player : Player.values()) {
+            Piece pawn = Piece.valueOf(PieceType.PAWN, player);
+            for (long pawns = board.pieces(pawn); pawns != 0; pawns &= pawns - 1) {
+                key ^= piece(pawn, Long.numberOfTrailingZeros(pawns));
+            }
+        }
+        return key;
+    }
+
+    private Zobrist() {
+        // hidden
+    }
+}
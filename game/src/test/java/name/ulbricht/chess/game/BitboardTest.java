@@ -0,0 +1,61 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class BitboardTest {
+
+    @Test
+    void testShiftDropsWrappingBits() {
+        assertEquals(Bitboard.EMPTY, Bitboard.shift(Bitboard.FILE_H, MoveDirection.RIGHT));
+        assertEquals(Bitboard.EMPTY, Bitboard.shift(Bitboard.FILE_A, MoveDirection.LEFT));
+        assertEquals(Bitboard.EMPTY, Bitboard.shift(Bitboard.RANK_8, MoveDirection.UP));
+        assertEquals(Bitboard.EMPTY, Bitboard.shift(Bitboard.RANK_1, MoveDirection.DOWN));
+        assertEquals(Bitboard.of(Coordinate.b2), Bitboard.shift(Bitboard.of(Coordinate.a1), MoveDirection.UP_RIGHT));
+        assertEquals(Bitboard.of(Coordinate.g7), Bitboard.shift(Bitboard.of(Coordinate.h8), MoveDirection.DOWN_LEFT));
+    }
+
+    @Test
+    void testKnightAttacks() {
+        assertEquals(List.of(Coordinate.c2, Coordinate.b3),
+                Bitboard.toList(Bitboard.knightAttacks(Bitboard.of(Coordinate.a1))));
+        assertEquals(List.of(Coordinate.c3, Coordinate.e3, Coordinate.b4, Coordinate.f4,
+                Coordinate.b6, Coordinate.f6, Coordinate.c7, Coordinate.e7),
+                Bitboard.toList(Bitboard.knightAttacks(Bitboard.of(Coordinate.d5))));
+    }
+
+    @Test
+    void testKingAttacks() {
+        assertEquals(List.of(Coordinate.g7, Coordinate.h7, Coordinate.g8),
+                Bitboard.toList(Bitboard.kingAttacks(Bitboard.of(Coordinate.h8))));
+        assertEquals(8, Long.bitCount(Bitboard.kingAttacks(Bitboard.of(Coordinate.e4))));
+    }
+
+    @Test
+    void testRookAttacks() {
+        long occupied = Bitboard.of(Coordinate.d6) | Bitboard.of(Coordinate.f4);
+        assertEquals(List.of(Coordinate.d1, Coordinate.d2, Coordinate.d3,
+                Coordinate.a4, Coordinate.b4, Coordinate.c4, Coordinate.e4, Coordinate.f4,
+                Coordinate.d5, Coordinate.d6),
+                Bitboard.toList(Bitboard.rookAttacks(Bitboard.of(Coordinate.d4), occupied)));
+    }
+
+    @Test
+    void testBishopAttacks() {
+        long occupied = Bitboard.of(Coordinate.b2) | Bitboard.of(Coordinate.f6);
+        assertEquals(List.of(Coordinate.g1, Coordinate.b2, Coordinate.f2, Coordinate.c3, Coordinate.e3,
+                Coordinate.c5, Coordinate.e5, Coordinate.b6, Coordinate.f6, Coordinate.a7),
+                Bitboard.toList(Bitboard.bishopAttacks(Bitboard.of(Coordinate.d4), occupied)));
+    }
+
+    @Test
+    void testPawnAttacks() {
+        assertEquals(List.of(Coordinate.b3),
+                Bitboard.toList(Bitboard.pawnAttacks(Bitboard.of(Coordinate.a2), Player.WHITE)));
+        assertEquals(List.of(Coordinate.d6, Coordinate.f6),
+                Bitboard.toList(Bitboard.pawnAttacks(Bitboard.of(Coordinate.e7), Player.BLACK)));
+    }
+}
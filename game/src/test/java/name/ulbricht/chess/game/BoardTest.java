@@ -0,0 +1,100 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class BoardTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @ValueSource(strings = {
+            FEN.INITIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"})
+    void testMakeUnmake(String fen) {
+        Board board = FEN.createBoard(fen);
+        Game game = new Game(board);
+
+        for (Ply ply : game.getValidPlies()) {
+            board.make(ply);
+            assertNotEquals(fen, FEN.toString(board), "Ply not performed: " + ply);
+            assertBitboards(board);
+            assertScores(board);
+            board.unmake(ply);
+            assertEquals(fen, FEN.toString(board), "Ply not taken back: " + ply);
+            assertBitboards(board);
+            assertScores(board);
+        }
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3\trnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 5 10\tr3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 10"})
+    void testNullMove(String fen, String expected) {
+        Board board = FEN.createBoard(fen);
+        long key = board.getPositionKey();
+
+        board.makeNullMove();
+        assertEquals(expected, FEN.toString(board));
+        assertEquals(Zobrist.key(board), board.getPositionKey());
+        assertEquals(0, board.repetitions());
+
+        board.unmakeNullMove();
+        assertEquals(fen, FEN.toString(board));
+        assertEquals(key, board.getPositionKey());
+    }
+
+    @Test
+    void testNullMoveInCheck() {
+        Board board = FEN.createBoard("4k3/8/8/8/8/8/8/4RK2 b - - 0 1");
+        assertThrows(IllegalStateException.class, board::makeNullMove);
+        assertThrows(IllegalStateException.class, board::unmakeNullMove);
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            FEN.INITIAL + "\t24",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1\t24",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1\t4",
+            "4k3/pppppppp/8/8/8/8/PPPPPPPP/4K3 w - - 0 1\t0",
+            "k7/8/8/8/8/8/QQQ5/QQQQK3 w - - 0 1\t24"})
+    void testScores(String fen, int phase) {
+        Board board = FEN.createBoard(fen);
+        assertScores(board);
+        assertEquals(phase, board.getPhase());
+
+        // the initial position is symmetric
+        if (fen.equals(FEN.INITIAL)) {
+            assertEquals(0, board.getMiddlegameScore());
+            assertEquals(0, board.getEndgameScore());
+        }
+    }
+
+    private static void assertScores(Board board) {
+        int[] scores = PieceSquareTables.scores(board);
+        assertEquals(scores[0], board.getMiddlegameScore(), "middlegame score");
+        assertEquals(scores[1], board.getEndgameScore(), "endgame score");
+        assertEquals(Math.min(scores[2], Board.MAX_PHASE), board.getPhase(), "phase");
+    }
+
+    private static void assertBitboards(Board board) {
+        for (Piece piece : Piece.values()) {
+            long expected = Bitboard.EMPTY;
+            for (Coordinate coordinate : Coordinate.values()) {
+                if (board.getPiece(coordinate) == piece) expected |= Bitboard.of(coordinate);
+            }
+            assertEquals(expected, board.pieces(piece), piece.name());
+        }
+        for (Player player : Player.values()) {
+            long king = board.pieces(Piece.valueOf(PieceType.KING, player));
+            assertEquals(Long.numberOfTrailingZeros(king), board.kingSquare(player), player.name());
+        }
+    }
+}
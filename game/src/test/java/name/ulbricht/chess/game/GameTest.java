@@ -1,15 +1,20 @@
 package name.ulbricht.chess.game;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class GameTest {
 
@@ -30,4 +35,185 @@ final class GameTest {
         if (piece == null) assertNull(game.getPiece(coordinate));
         else assertEquals(piece, game.getPiece(coordinate), "Unexpected piece");
     }
+
+    @Test
+    void testIsLegal() {
+        Game game = new Game();
+
+        assertTrue(game.isLegal(Ply.pawnDoubleAdvance(Piece.WHITE_PAWN, Coordinate.e2)));
+        assertTrue(game.isLegal(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.f3)));
+        assertFalse(game.isLegal(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.e2)));
+        assertFalse(game.isLegal(Ply.move(Piece.BLACK_PAWN, Coordinate.e7, Coordinate.e6)));
+        assertThrows(IllegalArgumentException.class,
+                () -> game.perform(Ply.move(Piece.WHITE_BISHOP, Coordinate.f1, Coordinate.c4)));
+    }
+
+    @Test
+    void testValidPliesOfPiece() {
+        Game game = new Game();
+
+        assertEquals(2, game.getValidPlies(Coordinate.b1).size());
+        assertEquals(0, game.getValidPlies(Coordinate.a1).size());
+        assertEquals(0, game.getValidPlies(Coordinate.e7).size());
+        assertEquals(20, game.getValidPlies().size());
+        assertEquals(2, game.getValidPlies(Coordinate.b1).size());
+    }
+
+    @Test
+    void testUndoRedo() {
+        Board board = FEN.createBoard("r3k2r/8/8/8/1p6/8/P7/R3K2R w KQkq - 0 1");
+        Game game = new Game(board);
+        String initial = FEN.toString(board);
+
+        game.perform(Ply.pawnDoubleAdvance(Piece.WHITE_PAWN, Coordinate.a2));
+        game.perform(Ply.pawnEnPassant(Piece.BLACK_PAWN, Coordinate.b4, Coordinate.a3));
+        game.perform(Ply.kingSideCastling(Piece.WHITE_KING));
+        game.perform(Ply.queenSideCastling(Piece.BLACK_KING));
+        String last = FEN.toString(game.getBoard());
+        long lastKey = game.getPositionKey();
+
+        while (game.isUndoAvailable()) game.undo();
+        assertEquals(initial, FEN.toString(game.getBoard()));
+        assertEquals(new Game(board).getValidPlies(), game.getValidPlies());
+
+        while (game.isRedoAvailable()) game.redo();
+        assertEquals(last, FEN.toString(game.getBoard()));
+        assertEquals(lastKey, game.getPositionKey());
+        assertFalse(game.isRedoAvailable());
+    }
+
+    @Test
+    void testGoTo() {
+        Game game = new Game();
+        List<String> positions = new ArrayList<>();
+        positions.add(FEN.toString(game.getBoard()));
+        for (int i = 0; i < 100 && !game.getValidPlies().isEmpty(); i++) {
+            List<Ply> plies = game.getValidPlies();
+            game.perform(plies.get((7 * i) % plies.size()));
+            positions.add(FEN.toString(game.getBoard()));
+        }
+        int count = game.getPlyCount();
+        assertEquals(positions.size() - 1, count);
+
+        for (int plyIndex : new int[]{0, count, 17, 16, 48, 3, count - 1, 31, 32, 33, 1, count}) {
+            game.goTo(plyIndex);
+            assertEquals(plyIndex, game.getPlyIndex());
+            assertEquals(positions.get(plyIndex), FEN.toString(game.getBoard()), "Ply index " + plyIndex);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> game.goTo(count + 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.goTo(-1));
+
+        // a new ply drops the undone plies
+        game.goTo(20);
+        game.perform(game.getValidPlies().get(0));
+        assertEquals(21, game.getPlyCount());
+        assertFalse(game.isRedoAvailable());
+        game.goTo(5);
+        assertEquals(positions.get(5), FEN.toString(game.getBoard()));
+    }
+
+    @Test
+    void testClocks() {
+        Game game = new Game();
+        game.perform(Ply.pawnDoubleAdvance(Piece.WHITE_PAWN, Coordinate.e2));
+        game.perform(Ply.pawnDoubleAdvance(Piece.BLACK_PAWN, Coordinate.e7));
+        game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.f3));
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", FEN.toString(game.getBoard()));
+
+        game.undo();
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2", FEN.toString(game.getBoard()));
+    }
+
+    @Test
+    void testStalemate() {
+        Game game = new Game(FEN.createBoard("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+
+        assertEquals(CheckState.STALEMATE, game.getCheckState());
+        assertEquals(DrawReason.STALEMATE, game.getDrawReason());
+        assertTrue(game.isOver());
+    }
+
+    @Test
+    void testThreefoldRepetition() {
+        Game game = new Game();
+        for (int i = 0; i < 2; i++) {
+            assertNull(game.getDrawReason());
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.f3));
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.g8, Coordinate.f6));
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.f3, Coordinate.g1));
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.f6, Coordinate.g8));
+        }
+        assertEquals(DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+
+        game.undo();
+        assertNull(game.getDrawReason());
+    }
+
+    @Test
+    void testRepetitionAfterDoubleAdvance() {
+        // the en-passant target after the double advance cannot be captured, so the position is repeated later
+        Game game = new Game();
+        game.perform(Ply.pawnDoubleAdvance(Piece.WHITE_PAWN, Coordinate.e2));
+        for (int i = 0; i < 2; i++) {
+            assertNull(game.getDrawReason());
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.g8, Coordinate.f6));
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.f3));
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.f6, Coordinate.g8));
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.f3, Coordinate.g1));
+        }
+        assertEquals(DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+    }
+
+    @Test
+    void testRepetitionAfterGoTo() {
+        Game game = new Game();
+        List<String> positions = new ArrayList<>();
+        positions.add(FEN.toString(game.getBoard()));
+        for (int i = 0; i < 9; i++) {
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.g1, Coordinate.f3));
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.g8, Coordinate.f6));
+            game.perform(Ply.move(Piece.WHITE_KNIGHT, Coordinate.f3, Coordinate.g1));
+            game.perform(Ply.move(Piece.BLACK_KNIGHT, Coordinate.f6, Coordinate.g8));
+            for (int j = 0; j < 4; j++) positions.add(null);
+            positions.set(positions.size() - 1, FEN.toString(game.getBoard()));
+        }
+
+        // the checkpoints keep no history, the moves since the last pawn move are replayed to find the repetitions
+        game.goTo(0);
+        game.goTo(36);
+        assertEquals(DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+        game.goTo(34);
+        assertEquals(DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+
+        // the moves before a restored checkpoint can be taken back
+        game.goTo(0);
+        game.goTo(33);
+        while (game.isUndoAvailable()) {
+            game.undo();
+            String position = positions.get(game.getPlyIndex());
+            if (position != null) assertEquals(position, FEN.toString(game.getBoard()));
+        }
+        assertEquals(0, game.getPlyIndex());
+        assertEquals(positions.get(0), FEN.toString(game.getBoard()));
+    }
+
+    @Test
+    void testFiftyMoveRule() {
+        Game game = new Game(FEN.createBoard("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80"));
+        assertNull(game.getDrawReason());
+
+        game.perform(Ply.move(Piece.WHITE_ROOK, Coordinate.a1, Coordinate.a2));
+        assertEquals(DrawReason.FIFTY_MOVE_RULE, game.getDrawReason());
+        assertTrue(game.isOver());
+    }
+
+    @Test
+    void testInsufficientMaterial() {
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new Game(FEN.createBoard("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).getDrawReason());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new Game(FEN.createBoard("4k3/8/8/8/8/8/8/4KN2 w - - 0 1")).getDrawReason());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new Game(FEN.createBoard("2b1k3/8/8/8/8/8/8/4KB2 w - - 0 1")).getDrawReason());
+        assertNull(new Game(FEN.createBoard("3bk3/8/8/8/8/8/8/4KB2 w - - 0 1")).getDrawReason());
+        assertNull(new Game(FEN.createBoard("4k3/8/8/8/8/8/8/4KNN1 w - - 0 1")).getDrawReason());
+        assertNull(new Game(FEN.createBoard("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")).getDrawReason());
+    }
 }
@@ -136,4 +136,23 @@ final class KnightPlyTest extends AbstractPlyTest {
         expectPlyNumber(game, "ne5", 0);
     }
 
+    @Test
+    void whitePinned() {
+        Game game = white("ke8", "re5", "Ne3", "Ke1");
+        expectPlyNumber(game, "Ne3", 0);
+    }
+
+    @Test
+    void whiteBlocksCheck() {
+        Game game = white("ke8", "re5", "Nc4", "Ke1");
+        expectPlyNumber(game, "Nc4", 2);
+        expectMove(game, "Nc4", "e3");
+        expectMoveAndCaptures(game, "Nc4", "re5");
+    }
+
+    @Test
+    void whiteDoubleCheck() {
+        Game game = white("ke8", "re5", "nd3", "Nb4", "Ke1");
+        expectPlyNumber(game, "Nb4", 0);
+    }
 }
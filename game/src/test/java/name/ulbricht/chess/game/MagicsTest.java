@@ -0,0 +1,42 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class MagicsTest {
+
+    private static final int SAMPLES = 500;
+
+    @Test
+    void testRookAttacks() {
+        Random random = new Random(1);
+        for (Coordinate coordinate : Coordinate.values()) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertEquals(Bitboard.rookAttacks(Bitboard.of(coordinate), occupied),
+                        Magics.rookAttacks(coordinate.ordinal(), occupied), coordinate.name());
+            }
+        }
+    }
+
+    @Test
+    void testBishopAttacks() {
+        Random random = new Random(2);
+        for (Coordinate coordinate : Coordinate.values()) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertEquals(Bitboard.bishopAttacks(Bitboard.of(coordinate), occupied),
+                        Magics.bishopAttacks(coordinate.ordinal(), occupied), coordinate.name());
+            }
+        }
+    }
+
+    @Test
+    void testQueenAttacksOnEmptyBoard() {
+        assertEquals(21, Long.bitCount(Magics.queenAttacks(Coordinate.a1.ordinal(), Bitboard.EMPTY)));
+        assertEquals(27, Long.bitCount(Magics.queenAttacks(Coordinate.d4.ordinal(), Bitboard.EMPTY)));
+    }
+}
@@ -0,0 +1,90 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class MoveGeneratorTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"})
+    void testCapturesAndQuietMoves(String fen) {
+        assertCaptures(FEN.createBoard(fen), 3);
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "8/8/8/8/8/8/8/8 w - - 0 1\t0",
+            "4k3/8/8/8/8/8/4P3/8 w - - 0 1\t2",
+            "4k3/8/8/8/8/8/4P3/8 b - - 0 1\t5",
+            "4k3/8/8/3Pp3/8/8/8/8 w - e6 0 1\t2",
+            "4k3/8/8/8/8/8/8/R3r3 w - - 0 1\t11"})
+    void testWithoutKing(String fen, int count) {
+        // the kings are not validated, so a position without a king must not fail
+        Board board = FEN.createBoard(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+        assertEquals(count, moves.size(), moves.toString());
+        assertEquals(count, new Game(board).getValidPlies().size());
+        assertCaptures(board, 2);
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\ttrue",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1\tfalse",
+            "7k/6Q1/6K1/8/8/8/8/8 b - - 0 1\tfalse",
+            "7k/6Q1/5K2/8/8/8/8/8 b - - 0 1\tfalse",
+            "k7/8/8/8/8/8/1r6/K6r w - - 0 1\ttrue",
+            "kr6/8/8/8/8/8/r7/K2B4 w - - 0 1\ttrue",
+            "kr6/8/8/8/8/8/1r6/KB5r w - - 0 1\tfalse",
+            "8/8/8/8/8/8/8/8 w - - 0 1\tfalse"})
+    void testHasLegalMove(String fen, boolean expected) {
+        Board board = FEN.createBoard(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+        assertEquals(expected, moves.size() > 0);
+        assertEquals(expected, MoveGenerator.hasLegalMove(board));
+
+        // the list is cleared, the moves generated before for another position do not count
+        MoveList buffer = new MoveList();
+        MoveGenerator.legalMoves(Board.initial(), buffer);
+        assertEquals(expected, MoveGenerator.hasLegalMove(board, buffer));
+    }
+
+    // the captures must be exactly the legal moves that capture or promote, the quiet moves must be the other ones
+    private static void assertCaptures(Board board, int depth) {
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+        MoveList expectedCaptures = new MoveList();
+        MoveList expectedQuietMoves = new MoveList();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.promotion(move) != null) expectedCaptures.add(move);
+            else expectedQuietMoves.add(move);
+        }
+
+        MoveList captures = new MoveList();
+        MoveGenerator.legalCaptures(board, captures);
+        assertEquals(expectedCaptures.toString(), captures.toString(), FEN.toString(board));
+
+        MoveList quietMoves = new MoveList();
+        MoveGenerator.legalQuietMoves(board, quietMoves);
+        assertEquals(expectedQuietMoves.toString(), quietMoves.toString(), FEN.toString(board));
+
+        if (depth > 1) {
+            for (int i = 0; i < moves.size(); i++) {
+                board.make(moves.get(i));
+                assertCaptures(board, depth - 1);
+                board.unmake(moves.get(i));
+            }
+        }
+    }
+}
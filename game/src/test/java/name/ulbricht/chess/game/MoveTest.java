@@ -0,0 +1,78 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MoveTest {
+
+    @Test
+    void testEncoding() {
+        int move = Move.of(PlyType.PAWN_PROMOTION, Piece.WHITE_PAWN, Coordinate.e7.ordinal(), Coordinate.d8.ordinal(),
+                Piece.BLACK_ROOK, PieceType.KNIGHT);
+
+        assertEquals(PlyType.PAWN_PROMOTION, Move.type(move));
+        assertEquals(Piece.WHITE_PAWN, Move.piece(move));
+        assertEquals(Coordinate.e7.ordinal(), Move.source(move));
+        assertEquals(Coordinate.d8.ordinal(), Move.target(move));
+        assertEquals(Piece.BLACK_ROOK, Move.capturedPiece(move));
+        assertTrue(Move.isCapture(move));
+        assertEquals(PieceType.KNIGHT, Move.promotion(move));
+        assertEquals("e7d8n", Move.toString(move));
+    }
+
+    @Test
+    void testQuietMove() {
+        int move = Move.of(PlyType.MOVE, Piece.WHITE_KING, Coordinate.a1.ordinal(), Coordinate.a2.ordinal(),
+                null, null);
+
+        assertFalse(Move.isCapture(move));
+        assertNull(Move.capturedPiece(move));
+        assertNull(Move.promotion(move));
+        assertEquals("a1a2", Move.toString(move));
+    }
+
+    @Test
+    void testPlyConversion() {
+        Ply ply = Ply.pawnPromotionAndCaptures(Piece.BLACK_PAWN, Coordinate.b2, Coordinate.a1, Piece.WHITE_ROOK);
+        ply.promotion = PieceType.ROOK;
+
+        Ply converted = Move.toPly(Move.of(ply));
+
+        assertEquals(ply, converted);
+        assertEquals(PieceType.ROOK, converted.promotion);
+    }
+
+    @Test
+    void testPromotionDefaultsToQueen() {
+        Ply ply = Ply.pawnPromotion(Piece.WHITE_PAWN, Coordinate.a7, Coordinate.a8);
+
+        assertEquals(PieceType.QUEEN, Move.promotion(Move.of(ply)));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\te2e4\tPAWN_DOUBLE_ADVANCE",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\tg1f3\tMOVE",
+            "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1\te8c8\tQUEEN_SIDE_CASTLING",
+            "4k3/8/8/3Pp3/8/8/8/4K3 w - e6 0 1\td5e6\tPAWN_EN_PASSANT",
+            "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1\tb7b8n\tPAWN_PROMOTION"})
+    void testParse(String fen, String notation, PlyType type) {
+        int move = Move.parse(FEN.createBoard(fen), notation);
+        assertEquals(notation, Move.toString(move));
+        assertEquals(type, Move.type(move));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @ValueSource(strings = {"", "e2", "e2e5", "e7e5", "i2i4", "e2e4q", "E2E4"})
+    void testParseIllegal(String notation) {
+        assertThrows(IllegalArgumentException.class, () -> Move.parse(Board.initial(), notation));
+    }
+}
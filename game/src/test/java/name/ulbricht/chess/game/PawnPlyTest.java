@@ -45,6 +45,29 @@ final class PawnPlyTest extends AbstractPlyTest {
         expectPawnEnPassant(game, "Pf5", "e6");
     }
 
+    @Test
+    void whiteEnPassant_discoveredCheck() {
+        Game game = black("pe7", "Pf5", "Ka5", "rh5", "ke8");
+
+        // black pawn double advances next to the white pawn, both pawns are between king and rook
+        Ply ply = game.getValidPlies(Coordinate.e7).stream()
+                .filter(p -> p.target == Coordinate.e5)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Expected ply not found"));
+        game.perform(ply);
+
+        // capturing en passant would expose the king to the rook
+        expectPlyNumber(game, "Pf5", 1);
+        expectMove(game, "Pf5", "f6");
+    }
+
+    @Test
+    void whitePinned() {
+        Game game = white("ke8", "bc4", "Pd3", "Ke2");
+        expectPlyNumber(game, "Pd3", 1);
+        expectMoveAndCaptures(game, "Pd3", "bc4");
+    }
+
     @Test
     void whitePromotion() {
         Game game = white("ke8", "rh8", "Pg7", "pb2", "Ra1", "Ke1");
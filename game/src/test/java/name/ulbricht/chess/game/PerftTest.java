@@ -0,0 +1,56 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class PerftTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvFileSource(resources = "perft.txt", delimiter = '\t')
+    void testPerft(String fen, int depth, long nodes) {
+        Board board = FEN.createBoard(fen);
+
+        assertEquals(nodes, Perft.perft(board, depth).nodes);
+
+        // the board must not be changed by perft
+        assertEquals(fen, FEN.toString(board));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource({"0, 1", "1, 2", "2, 4", "3, 3", "5, 8"})
+    void testParallel(int splitDepth, int parallelism) {
+        Board board = FEN.createBoard("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        assertEquals(97862, Perft.perft(board, 3, splitDepth, parallelism).nodes);
+    }
+
+    @Test
+    void testDivide() {
+        Board board = Board.initial();
+
+        Map<String, Long> counts = Perft.divide(board, 3);
+        assertEquals(20, counts.size());
+        assertEquals(600L, (long) counts.get("e2e4"));
+        assertEquals(Perft.perft(board, 3).nodes, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testDividePromotion() {
+        Map<String, Long> counts = Perft.divide(FEN.createBoard("8/P1k5/K7/8/8/8/8/8 w - - 0 1"), 1);
+        assertEquals(1L, (long) counts.get("a7a8q"));
+        assertEquals(1L, (long) counts.get("a7a8r"));
+        assertEquals(1L, (long) counts.get("a7a8b"));
+        assertEquals(1L, (long) counts.get("a7a8n"));
+    }
+
+    @Test
+    void testDepthZero() {
+        assertEquals(1, Perft.perft(Board.initial(), 0).nodes);
+    }
+}
@@ -0,0 +1,52 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RulesTest {
+
+    @Test
+    void testAttacked() {
+        Board board = FEN.createBoard("4k3/8/8/3p4/8/8/8/R3K3 w - - 0 1");
+
+        long attacked = Rules.attacked(board, Player.BLACK);
+        assertTrue(Bitboard.contains(attacked, Coordinate.c4));
+        assertTrue(Bitboard.contains(attacked, Coordinate.e4));
+        assertTrue(Bitboard.contains(attacked, Coordinate.d7));
+        assertFalse(Bitboard.contains(attacked, Coordinate.d4));
+    }
+
+    @Test
+    void testAttackers() {
+        Board board = FEN.createBoard("4k3/8/8/3p4/4P3/2N5/8/4R1K1 w - - 0 1");
+
+        assertEquals(List.of(Coordinate.c3, Coordinate.e4),
+                Bitboard.toList(Rules.attackers(board, Coordinate.d5.ordinal(), board.occupancy())));
+        assertEquals(List.of(Coordinate.e1, Coordinate.c3, Coordinate.d5),
+                Bitboard.toList(Rules.attackers(board, Coordinate.e4.ordinal(), board.occupancy())));
+    }
+
+    @Test
+    void testIsAttacked() {
+        Board board = FEN.createBoard("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+
+        assertTrue(Rules.isAttacked(board, Coordinate.a8.ordinal(), Player.WHITE));
+        assertTrue(Rules.isAttacked(board, Coordinate.d7.ordinal(), Player.BLACK));
+        assertFalse(Rules.isAttacked(board, Coordinate.a8.ordinal(), Player.BLACK));
+        assertFalse(Rules.isAttacked(board, Coordinate.f2.ordinal(), Player.BLACK));
+    }
+
+    @Test
+    void testIsInCheck() {
+        assertFalse(Rules.isInCheck(Board.initial(), Player.WHITE));
+
+        Board board = FEN.createBoard("4k3/8/8/8/8/8/8/R3K2r w - - 0 1");
+        assertTrue(Rules.isInCheck(board, Player.WHITE));
+        assertFalse(Rules.isInCheck(board, Player.BLACK));
+    }
+}
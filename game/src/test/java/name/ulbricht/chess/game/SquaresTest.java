@@ -0,0 +1,71 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class SquaresTest {
+
+    @Test
+    void testNeighbour() {
+        assertEquals(Coordinate.e5.ordinal(), Squares.neighbour(Coordinate.e4.ordinal(), MoveDirection.UP));
+        assertEquals(Coordinate.b2.ordinal(), Squares.neighbour(Coordinate.a1.ordinal(), MoveDirection.UP_RIGHT));
+        assertEquals(Squares.NONE, Squares.neighbour(Coordinate.h4.ordinal(), MoveDirection.RIGHT));
+        assertEquals(Squares.NONE, Squares.neighbour(Coordinate.a8.ordinal(), MoveDirection.UP_LEFT));
+    }
+
+    @Test
+    void testOpposite() {
+        for (MoveDirection direction : MoveDirection.values()) {
+            assertEquals(-direction.column(), direction.opposite().column());
+            assertEquals(-direction.row(), direction.opposite().row());
+        }
+    }
+
+    @Test
+    void testRay() {
+        assertEquals(List.of(Coordinate.f6, Coordinate.g7, Coordinate.h8),
+                Bitboard.toList(Squares.ray(Coordinate.e5.ordinal(), MoveDirection.UP_RIGHT)));
+        assertEquals(Bitboard.EMPTY, Squares.ray(Coordinate.a1.ordinal(), MoveDirection.DOWN));
+    }
+
+    @Test
+    void testTargetsMatchBitboards() {
+        for (Coordinate coordinate : Coordinate.values()) {
+            long bitboard = Bitboard.of(coordinate);
+            int square = coordinate.ordinal();
+            assertEquals(Bitboard.knightAttacks(bitboard), Squares.knightTargets(square));
+            assertEquals(Bitboard.kingAttacks(bitboard), Squares.kingTargets(square));
+            for (Player player : Player.values()) {
+                assertEquals(Bitboard.pawnAttacks(bitboard, player), Squares.pawnTargets(square, player));
+            }
+        }
+    }
+
+    @Test
+    void testBetween() {
+        assertEquals(List.of(Coordinate.b1, Coordinate.c1, Coordinate.d1),
+                Bitboard.toList(Squares.between(Coordinate.e1.ordinal(), Coordinate.a1.ordinal())));
+        assertEquals(List.of(Coordinate.c3, Coordinate.d4),
+                Bitboard.toList(Squares.between(Coordinate.e5.ordinal(), Coordinate.b2.ordinal())));
+        assertEquals(Bitboard.EMPTY, Squares.between(Coordinate.e1.ordinal(), Coordinate.f1.ordinal()));
+        assertEquals(Bitboard.EMPTY, Squares.between(Coordinate.e1.ordinal(), Coordinate.f3.ordinal()));
+    }
+
+    @Test
+    void testLine() {
+        assertEquals(Bitboard.FILE_A, Squares.line(Coordinate.a3.ordinal(), Coordinate.a5.ordinal()));
+        assertEquals(Bitboard.RANK_1, Squares.line(Coordinate.h1.ordinal(), Coordinate.c1.ordinal()));
+        assertEquals(8, Long.bitCount(Squares.line(Coordinate.b2.ordinal(), Coordinate.g7.ordinal())));
+        assertEquals(Bitboard.EMPTY, Squares.line(Coordinate.a1.ordinal(), Coordinate.b3.ordinal()));
+    }
+
+    @Test
+    void testDistance() {
+        assertEquals(0, Squares.distance(Coordinate.d4.ordinal(), Coordinate.d4.ordinal()));
+        assertEquals(7, Squares.distance(Coordinate.a1.ordinal(), Coordinate.h8.ordinal()));
+        assertEquals(2, Squares.distance(Coordinate.e1.ordinal(), Coordinate.g2.ordinal()));
+    }
+}
@@ -0,0 +1,90 @@
+package name.ulbricht.chess.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+final class ZobristTest {
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @ValueSource(strings = {
+            FEN.INITIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "4k3/8/8/8/1p1p1p1p/8/P1P1P1P1/4K3 w - - 0 1",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"})
+    void testIncrementalKey(String fen) {
+        Board board = FEN.createBoard(fen);
+        assertEquals(Zobrist.key(board), board.getPositionKey());
+        assertEquals(Zobrist.pawnKey(board), board.getPawnKey());
+        verify(board, 3);
+    }
+
+    private static void verify(Board board, int depth) {
+        if (depth == 0) return;
+        long key = board.getPositionKey();
+        long pawnKey = board.getPawnKey();
+        for (Ply ply : MoveGenerator.legalPlies(board)) {
+            board.make(ply);
+            assertEquals(Zobrist.key(board), board.getPositionKey(), "Wrong key after " + ply);
+            assertEquals(Zobrist.pawnKey(board), board.getPawnKey(), "Wrong pawn key after " + ply);
+            verify(board, depth - 1);
+            board.unmake(ply);
+            assertEquals(key, board.getPositionKey(), "Wrong key after taking back " + ply);
+            assertEquals(pawnKey, board.getPawnKey(), "Wrong pawn key after taking back " + ply);
+        }
+    }
+
+    @Test
+    void testTransposition() {
+        Game game = new Game();
+        long initialKey = game.getPositionKey();
+
+        perform(game, Coordinate.g1, Coordinate.f3);
+        assertNotEquals(initialKey, game.getPositionKey());
+        perform(game, Coordinate.g8, Coordinate.f6);
+        perform(game, Coordinate.f3, Coordinate.g1);
+        perform(game, Coordinate.f6, Coordinate.g8);
+
+        assertEquals(initialKey, game.getPositionKey());
+        assertEquals(Board.initial(), game.getBoard());
+        assertEquals(Board.initial().hashCode(), game.getBoard().hashCode());
+    }
+
+    @Test
+    void testEnPassantTarget() {
+        Board withTarget = FEN.createBoard("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3");
+        Board withoutTarget = FEN.createBoard("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3");
+
+        assertNotEquals(withTarget.getPositionKey(), withoutTarget.getPositionKey());
+        assertNotEquals(withTarget, withoutTarget);
+
+        // no pawn of the active player attacks the target, so the key is the same as without it
+        Board uncapturable = FEN.createBoard("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Board initial = FEN.createBoard("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        assertEquals(initial.getPositionKey(), uncapturable.getPositionKey());
+        assertEquals(Zobrist.key(uncapturable), uncapturable.getPositionKey());
+    }
+
+    @Test
+    void testPawnKey() {
+        Board board = FEN.createBoard("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals(0L, board.getPawnKey());
+
+        // the pawn key does not change if a piece other than a pawn moves
+        Board before = FEN.createBoard("r3k3/pp6/8/8/8/8/PP6/4K2R w - - 0 1");
+        Board after = FEN.createBoard("r3k3/pp6/8/8/8/8/PP6/4KR2 b - - 1 1");
+        assertEquals(before.getPawnKey(), after.getPawnKey());
+        assertNotEquals(before.getPositionKey(), after.getPositionKey());
+    }
+
+    private static void perform(Game game, Coordinate source, Coordinate target) {
+        game.perform(game.getValidPlies(source).stream()
+                .filter(p -> p.target == target)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Expected ply not found")));
+    }
+}
@@ -0,0 +1,390 @@
+package name.ulbricht.chess.uci;
+
+import name.ulbricht.chess.engine.ParallelSearch;
+import name.ulbricht.chess.engine.SearchInfo;
+import name.ulbricht.chess.engine.SearchLimits;
+import name.ulbricht.chess.engine.TranspositionTable;
+import name.ulbricht.chess.game.Board;
+import name.ulbricht.chess.game.FEN;
+import name.ulbricht.chess.game.Move;
+import name.ulbricht.chess.game.MoveList;
+import name.ulbricht.chess.game.Player;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The engine as a process that speaks the <b>Universal Chess Interface (UCI)</b> on the standard input and output, so
+ * it can be used by chess GUIs and match managers.
+ * <p>
+ * The commands are read and handled in the calling thread, the search runs in a worker thread. So the engine keeps
+ * responding while it searches, {@code stop} and {@code isready} are handled immediately. Each completed iteration of
+ * the search is reported as an {@code info} line. All answers are queued and written by an output thread, so the
+ * search thread never waits for the I/O.
+ * <p>
+ * Usage: {@code UCI}
+ */
+public final class UCI {
+
+    static final String NAME = "Chess";
+    static final String AUTHOR = "Ulbricht";
+
+    static final int DEFAULT_HASH = 16;
+    static final int MAX_HASH = 1024;
+    static final int MAX_THREADS = 64;
+
+    // marks the end of the output
+    private static final String END = new String("");
+
+    private final PrintStream out;
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+    private final Thread writer = new Thread(this::write, "uci-output");
+    private final Object lock = new Object();
+
+    // guarded by the queue: the number of lines queued and written
+    private long queued;
+    private long written;
+
+    private Board board = FEN.createBoard(FEN.INITIAL);
+    private TranspositionTable table = new TranspositionTable(DEFAULT_HASH);
+    private int threads = 1;
+
+    private ParallelSearch search;
+    private Thread worker;
+
+    // guarded by the lock: the best move of an infinite or pondering search is only sent after stop or ponderhit
+    private boolean waiting;
+    private boolean pondering;
+
+    /**
+     * Creates an engine that writes its answers to the given stream.
+     *
+     * @param out the stream of the answers
+     */
+    public UCI(PrintStream out) {
+        this.out = Objects.requireNonNull(out, "out cannot be null");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Executes a command of the GUI. An illegal command is answered with an {@code info string}, as the protocol does
+     * not know errors.
+     *
+     * @param line the command line
+     * @return {@code false} if the command was {@code quit}
+     */
+    public boolean execute(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        try {
+            switch (tokens[0]) {
+                case "":
+                case "debug":
+                case "register":
+                    break;
+                case "uci":
+                    send("id name " + NAME);
+                    send("id author " + AUTHOR);
+                    send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name Ponder type check default false");
+                    send("uciok");
+                    break;
+                case "isready":
+                    send("readyok");
+                    break;
+                case "setoption":
+                    setOption(tokens);
+                    break;
+                case "ucinewgame":
+                    finishSearch();
+                    this.table.clear();
+                    break;
+                case "position":
+                    finishSearch();
+                    this.board = parsePosition(Arrays.copyOfRange(tokens, 1, tokens.length));
+                    break;
+                case "go":
+                    go(tokens);
+                    break;
+                case "stop":
+                    stop();
+                    break;
+                case "ponderhit":
+                    ponderHit();
+                    break;
+                case "quit":
+                    finishSearch();
+                    closeOutput();
+                    return false;
+                default:
+                    send("info string Unknown command: " + tokens[0]);
+            }
+        } catch (RuntimeException ex) {
+            send("info string " + ex.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Creates the board of a {@code position} command.
+     *
+     * @param tokens the arguments of the command, {@code startpos} or {@code fen} and the six FEN fields, optionally
+     *               followed by {@code moves} and the moves in long algebraic notation
+     * @return the board after the moves
+     * @throws IllegalArgumentException if the position or one of the moves is illegal
+     */
+    static Board parsePosition(String[] tokens) {
+        int movesIndex = Arrays.asList(tokens).indexOf("moves");
+        if (movesIndex < 0) movesIndex = tokens.length;
+
+        Board board;
+        if (tokens.length > 0 && tokens[0].equals("startpos") && movesIndex == 1)
+            board = FEN.createBoard(FEN.INITIAL);
+        else if (tokens.length > 0 && tokens[0].equals("fen"))
+            board = FEN.createBoard(String.join(" ", Arrays.copyOfRange(tokens, 1, movesIndex)));
+        else
+            throw new IllegalArgumentException("Illegal position: " + String.join(" ", tokens));
+
+        MoveList moves = new MoveList();
+        for (int i = movesIndex + 1; i < tokens.length; i++) {
+            board.make(Move.parse(board, tokens[i], moves));
+        }
+        return board;
+    }
+
+    private void setOption(String[] tokens) {
+        int nameIndex = Arrays.asList(tokens).indexOf("name");
+        int valueIndex = Arrays.asList(tokens).indexOf("value");
+        if (nameIndex < 0 || valueIndex < nameIndex)
+            throw new IllegalArgumentException("Illegal option: " + String.join(" ", tokens));
+        String name = String.join(" ", Arrays.copyOfRange(tokens, nameIndex + 1, valueIndex));
+        String value = String.join(" ", Arrays.copyOfRange(tokens, valueIndex + 1, tokens.length));
+
+        switch (name.toLowerCase()) {
+            case "hash":
+                finishSearch();
+                this.table = new TranspositionTable(parseInt(value, 1, MAX_HASH));
+                break;
+            case "threads":
+                finishSearch();
+                this.threads = parseInt(value, 1, MAX_THREADS);
+                break;
+            case "ponder":
+                // pondering only depends on the go command
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    private void go(String[] tokens) {
+        finishSearch();
+
+        SearchLimits limits = SearchLimits.infinite();
+        long time = 0;
+        long increment = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+        String timeToken = this.board.getActivePlayer() == Player.WHITE ? "wtime" : "btime";
+        String incrementToken = this.board.getActivePlayer() == Player.WHITE ? "winc" : "binc";
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.equals("infinite")) {
+                infinite = true;
+            } else if (token.equals("ponder")) {
+                ponder = true;
+            } else if (i + 1 < tokens.length) {
+                String value = tokens[i + 1];
+                if (token.equals("depth"))
+                    limits = limits.withDepth(parseInt(value, 1, SearchLimits.MAX_DEPTH));
+                else if (token.equals("nodes")) limits = limits.withNodes(Math.max(1, parseLong(value)));
+                else if (token.equals("movetime")) limits = limits.withTime(Math.max(1, parseLong(value)));
+                else if (token.equals(timeToken)) time = parseLong(value);
+                else if (token.equals(incrementToken)) increment = parseLong(value);
+                else if (token.equals("movestogo")) movesToGo = parseInt(value, 1, Integer.MAX_VALUE);
+                else continue;
+                i++;
+            }
+        }
+
+        // a pondering search is on the clock as well, but its time only starts with ponderhit
+        if ((time > 0 || increment > 0) && !infinite) limits = limits.withClock(time, increment, movesToGo);
+
+        ParallelSearch search = new ParallelSearch(this.board, limits, this.table, this.threads, this::info);
+        if (ponder) search.ponder();
+        synchronized (this.lock) {
+            this.waiting = infinite || ponder;
+            this.pondering = ponder;
+        }
+        this.search = search;
+        this.worker = new Thread(() -> run(search), "uci-search");
+        this.worker.start();
+    }
+
+    private void run(ParallelSearch search) {
+        SearchInfo result = null;
+        try {
+            result = search.search();
+        } catch (RuntimeException ex) {
+            // the GUI waits for the best move in any case
+            send("info string " + ex);
+        }
+        synchronized (this.lock) {
+            while (this.waiting) {
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        int[] pv = result != null ? result.getPrincipalVariation() : new int[0];
+        if (pv.length == 0) send("bestmove 0000");
+        else if (pv.length == 1) send("bestmove " + Move.toString(pv[0]));
+        else send("bestmove " + Move.toString(pv[0]) + " ponder " + Move.toString(pv[1]));
+    }
+
+    private void info(SearchInfo info) {
+        StringBuilder sb = new StringBuilder("info");
+        sb.append(" depth ").append(info.depth);
+        sb.append(" score ").append(info.isMate() ? "mate " + info.getMateMoves() : "cp " + info.score);
+        sb.append(" nodes ").append(info.nodes);
+        sb.append(" nps ").append(info.getNodesPerSecond());
+        sb.append(" time ").append(info.nanos / 1_000_000L);
+        sb.append(" hashfull ").append(info.hashfull);
+        sb.append(" pv");
+        for (int move : info.getPrincipalVariation()) {
+            sb.append(' ').append(Move.toString(move));
+        }
+        send(sb.toString());
+    }
+
+    private void stop() {
+        synchronized (this.lock) {
+            this.waiting = false;
+            this.pondering = false;
+            this.lock.notifyAll();
+        }
+        if (this.search != null) this.search.stop();
+    }
+
+    // the opponent played the expected move, the search continues with the time of the move
+    private void ponderHit() {
+        synchronized (this.lock) {
+            if (!this.pondering) return;
+            this.pondering = false;
+            this.waiting = false;
+            this.lock.notifyAll();
+        }
+        this.search.ponderHit();
+    }
+
+    // stops a running search and waits for its best move, so the next command applies to an idle engine
+    private void finishSearch() {
+        if (this.worker == null) return;
+        stop();
+        try {
+            this.worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.worker = null;
+        this.search = null;
+    }
+
+    /**
+     * Waits until the running search has sent its best move and all answers are written.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void waitForSearch() throws InterruptedException {
+        if (this.worker != null) this.worker.join();
+        flush();
+    }
+
+    /**
+     * Waits until all answers queued so far are written.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void flush() throws InterruptedException {
+        synchronized (this.output) {
+            long queued = this.queued;
+            while (this.written < queued && this.writer.isAlive()) this.output.wait(100);
+        }
+    }
+
+    // queues the line for the output thread, this never blocks the search
+    private void send(String line) {
+        synchronized (this.output) {
+            this.queued++;
+        }
+        this.output.add(line);
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                String line = this.output.take();
+                if (line == END) return;
+                this.out.println(line);
+                this.out.flush();
+                synchronized (this.output) {
+                    this.written++;
+                    this.output.notifyAll();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // writes the queued answers before the process ends
+    private void closeOutput() {
+        this.output.add(END);
+        try {
+            this.writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int parseInt(String value, int min, int max) {
+        try {
+            int i = Integer.parseInt(value);
+            if (i < min || i > max) throw new IllegalArgumentException("Illegal value: " + value);
+            return i;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value: " + value, ex);
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value: " + value, ex);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        UCI uci = new UCI(System.out);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!uci.execute(line)) return;
+        }
+        uci.execute("quit");
+    }
+}
@@ -0,0 +1,144 @@
+package name.ulbricht.chess.uci;
+
+import name.ulbricht.chess.game.FEN;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class UCITest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final UCI uci = new UCI(new PrintStream(this.output, true));
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "startpos\trnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "startpos moves e2e4 e7e5 g1f3\trnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+            "fen 4k3/1P6/8/8/8/8/8/4K3 w - - 0 1 moves b7b8n\t1N2k3/8/8/8/8/8/8/4K3 b - - 0 1",
+            "fen r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1 moves e1g1 e8c8\t2kr3r/8/8/8/8/8/8/R4RK1 w - - 2 2"})
+    void testPosition(String command, String expected) {
+        assertEquals(expected, FEN.toString(UCI.parsePosition(command.split(" "))));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "fen",
+            "moves e2e4",
+            "startpos e2e4",
+            "startpos moves e2e5",
+            "startpos moves e7e5",
+            "fen 4k3/1P6/8/8/8/8/8/4K3 w - - 0 1 moves b7b8"})
+    void testIllegalPosition(String command) {
+        assertThrows(IllegalArgumentException.class, () -> UCI.parsePosition(command.split(" ")));
+    }
+
+    @Test
+    void testHandshake() {
+        assertTrue(this.uci.execute("uci"));
+        assertTrue(this.uci.execute("isready"));
+        List<String> lines = lines();
+        assertEquals("id name " + UCI.NAME, lines.get(0));
+        assertTrue(lines.contains("option name Hash type spin default 16 min 1 max " + UCI.MAX_HASH));
+        assertTrue(lines.contains("option name Threads type spin default 1 min 1 max " + UCI.MAX_THREADS));
+        assertEquals(Arrays.asList("uciok", "readyok"), lines.subList(lines.size() - 2, lines.size()));
+        assertFalse(this.uci.execute("quit"));
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "startpos\tgo depth 3\t",
+            "fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1\tgo depth 2\td1d8",
+            "fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1\tgo nodes 5000\td1d8",
+            "fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1\tgo movetime 100\td1d8",
+            "fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1\tgo wtime 1000 btime 1000 winc 10 binc 10\td1d8",
+            "fen 4k3/8/8/8/8/8/4P3/8 w - - 0 1\tgo depth 2\t"})
+    void testGo(String position, String go, String bestMove) throws InterruptedException {
+        this.uci.execute("position " + position);
+        this.uci.execute(go);
+        this.uci.waitForSearch();
+
+        List<String> lines = lines();
+        assertTrue(lines.get(0).startsWith("info depth 1 score "), lines.get(0));
+        String last = lines.get(lines.size() - 1);
+        assertTrue(last.startsWith("bestmove " + (bestMove != null ? bestMove : "")), last);
+    }
+
+    @Test
+    void testNoMove() throws InterruptedException {
+        this.uci.execute("position fen 7k/5QQ1/8/8/8/8/8/K7 b - - 0 1");
+        this.uci.execute("go depth 2");
+        this.uci.waitForSearch();
+        assertEquals("bestmove 0000", lines().get(lines().size() - 1));
+    }
+
+    @Test
+    void testInfinite() throws InterruptedException {
+        this.uci.execute("position startpos moves e2e4");
+        this.uci.execute("go infinite");
+        Thread.sleep(100);
+        assertTrue(this.uci.execute("isready"));
+        assertTrue(lines().contains("readyok"));
+        assertFalse(lines().stream().anyMatch(line -> line.startsWith("bestmove")));
+
+        this.uci.execute("stop");
+        this.uci.waitForSearch();
+        assertTrue(lines().get(lines().size() - 1).startsWith("bestmove "));
+    }
+
+    @Test
+    void testPonderHit() throws InterruptedException {
+        this.uci.execute("position startpos");
+        this.uci.execute("go ponder wtime 1000 btime 1000");
+        Thread.sleep(300);
+        // the time of the move is not over while pondering
+        assertFalse(lines().stream().anyMatch(line -> line.startsWith("bestmove")));
+
+        // the clock starts with the ponder hit, the hard limit is far below the remaining time
+        long start = System.nanoTime();
+        this.uci.execute("ponderhit");
+        this.uci.waitForSearch();
+        assertTrue(lines().get(lines().size() - 1).startsWith("bestmove "));
+        assertTrue(System.nanoTime() - start < 900_000_000L);
+    }
+
+    @ParameterizedTest(name = "{index}: [{arguments}]")
+    @CsvSource(delimiter = '\t', value = {
+            "setoption name Hash value 1\t",
+            "setoption name Threads value 2\t",
+            "setoption name Threads value 0\tinfo string Illegal value: 0",
+            "setoption name Hash value x\tinfo string Illegal value: x",
+            "setoption name Style value Risky\tinfo string Unknown option: Style",
+            "position startpos moves e2e5\tinfo string Illegal move: e2e5",
+            "go depth 0\tinfo string Illegal value: 0",
+            "xyzzy\tinfo string Unknown command: xyzzy"})
+    void testCommand(String command, String expected) throws InterruptedException {
+        assertTrue(this.uci.execute(command));
+        assertEquals(expected != null ? List.of(expected) : List.of(), lines());
+
+        // the engine can still search after the command
+        this.uci.execute("go depth 2");
+        this.uci.waitForSearch();
+        assertTrue(lines().get(lines().size() - 1).startsWith("bestmove "));
+    }
+
+    private List<String> lines() {
+        try {
+            this.uci.flush();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+        String s = new String(this.output.toByteArray(), StandardCharsets.UTF_8);
+        return s.isEmpty() ? List.of() : Arrays.asList(s.split("\\R"));
+    }
+}